@@ -0,0 +1,44 @@
+package org.example.importexportservice.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.importexportservice.dto.TradeStatisticDTO;
+import org.example.importexportservice.mapper.TradeStatisticsMapperImpl;
+import org.example.importexportservice.service.TradeBatchPreparer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Import pipeline'ning map bosqichi: 500 qatorli buffer uchun
+ * map → trade type → identity dedup → uniqueHash
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchPrepareBenchmark {
+
+    @Param({"500"})
+    public int batchSize;
+
+    @Param({"0.0", "0.1", "0.5"})
+    public double duplicateRatio;
+
+    private final TradeBatchPreparer preparer = new TradeBatchPreparer(new TradeStatisticsMapperImpl(), new SimpleMeterRegistry());
+
+    private List<TradeStatisticDTO> batch;
+
+    @Setup
+    public void setUp() {
+        batch = TradeFixtures.dtos(batchSize, duplicateRatio, 42);
+    }
+
+    @Benchmark
+    public Collection<?> prepareBatch() {
+        return preparer.prepare(batch);
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.importexportservice.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.importexportservice.enums.ExecutionMode;
+import org.example.importexportservice.limiter.BlockingSchedulers;
+import org.example.importexportservice.limiter.PipelineStage;
+import org.openjdk.jmh.annotations.*;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persist bosqichi: bir xil bloklovchi ish (JDBC round-trip o'rniga sleep + batch hajmidagi allokatsiya)
+ * boundedElastic va virtual thread'larda, bir xil PipelineStage gate bilan.
+ * <p>
+ * Xotira: {@code -prof gc} (jmh profilida default). VIRTUAL faqat Java 21+ da ishlaydi:
+ * {@code mvn -Pjmh,java21 test-compile exec:exec -Djmh.args="BlockingSchedulerBenchmark -prof gc"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BlockingSchedulerBenchmark {
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    public ExecutionMode mode;
+
+    // gate = DB pool hajmi; katta qiymat platform thread'lar narxini ko'rsatadi
+    @Param({"16", "256"})
+    public int permits;
+
+    @Param({"1000"})
+    public int tasks;
+
+    @Param({"1"})
+    public long latencyMillis;
+
+    private Scheduler scheduler;
+    private PipelineStage stage;
+
+    @Setup
+    public void setUp() {
+        if (mode == ExecutionMode.VIRTUAL && !BlockingSchedulers.isVirtualSupported()) {
+            throw new IllegalStateException("VIRTUAL uchun Java 21+ kerak");
+        }
+        scheduler = BlockingSchedulers.create(mode, "bench");
+        stage = new PipelineStage("bench", permits, tasks, scheduler, new SimpleMeterRegistry());
+    }
+
+    @TearDown
+    public void tearDown() {
+        scheduler.dispose();
+    }
+
+    /**
+     * Bitta operatsiya = {@code tasks} ta "batch yozish"
+     */
+    @Benchmark
+    public Long persistTasks() {
+        return Flux.range(0, tasks)
+                .flatMap(i -> stage.submit(() -> {
+                    byte[] payload = new byte[16 * 1024];
+                    Thread.sleep(latencyMillis);
+                    return (long) payload.length;
+                }), tasks)
+                .reduce(0L, Long::sum)
+                .block();
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.importexportservice.benchmark;
+
+import org.example.importexportservice.entity.TradeData;
+import org.example.importexportservice.hash.IdentityKey;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * unique_hash va identity key: eski String asosidagi variant ↔ yangi allocation-light variant.
+ * Natijani -prof gc bilan ko'ring (gc.alloc.rate.norm – bir qator uchun bayt).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(HashBenchmark.ROWS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HashBenchmark {
+
+    static final int ROWS = 1_000;
+
+    private List<TradeData> rows;
+
+    @Setup
+    public void setUp() {
+        rows = TradeFixtures.entities(ROWS, 42);
+    }
+
+    @Benchmark
+    public void contentHashLegacy(Blackhole bh) {
+        for (TradeData row : rows) {
+            bh.consume(LegacyTradeDataHashing.calculateHash(row));
+        }
+    }
+
+    @Benchmark
+    public void contentHash(Blackhole bh) {
+        for (TradeData row : rows) {
+            bh.consume(row.calculateHash());
+        }
+    }
+
+    @Benchmark
+    public void identityKeyLegacy(Blackhole bh) {
+        for (TradeData row : rows) {
+            bh.consume(LegacyTradeDataHashing.identityKey(row));
+        }
+    }
+
+    @Benchmark
+    public void identityKey(Blackhole bh) {
+        for (TradeData row : rows) {
+            bh.consume(row.identityKey());
+        }
+    }
+
+    @Benchmark
+    public void identityFingerprint64(Blackhole bh) {
+        for (TradeData row : rows) {
+            bh.consume(IdentityKey.fingerprint64(
+                    row.getCompanyInn(),
+                    row.getHsCode(),
+                    row.getDeclarationDate(),
+                    row.getTradeOperationType().name()));
+        }
+    }
+}
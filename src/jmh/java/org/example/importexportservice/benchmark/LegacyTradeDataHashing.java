@@ -0,0 +1,39 @@
+package org.example.importexportservice.benchmark;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.example.importexportservice.entity.TradeData;
+
+import java.math.BigDecimal;
+
+/**
+ * Taqqoslash uchun: TradeData.calculateHash va identity key ning oldingi (String asosidagi) varianti
+ */
+final class LegacyTradeDataHashing {
+
+    private LegacyTradeDataHashing() {
+    }
+
+    static String calculateHash(TradeData t) {
+        String data = String.join("|",
+                t.getTradeOperationType().name(),
+                t.getHsCode(),
+                normalizeGoodsValue(t.getGoodsValue()),
+                t.getCountryCode(),
+                t.getCompanyInn(),
+                t.getDeclarationDate().toString()
+        );
+        return DigestUtils.sha256Hex(data);
+    }
+
+    static String identityKey(TradeData t) {
+        return t.getCompanyInn() + "|" +
+                t.getHsCode() + "|" +
+                t.getDeclarationDate() + "|" +
+                t.getTradeOperationType();
+    }
+
+    private static String normalizeGoodsValue(BigDecimal value) {
+        if (value == null) return "0";
+        return value.stripTrailingZeros().toPlainString();
+    }
+}
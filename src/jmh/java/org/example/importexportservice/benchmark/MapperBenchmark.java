@@ -0,0 +1,55 @@
+package org.example.importexportservice.benchmark;
+
+import org.example.importexportservice.dto.TradeStatisticDTO;
+import org.example.importexportservice.mapper.TradeStatisticsMapper;
+import org.example.importexportservice.mapper.TradeStatisticsMapperImpl;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TradeStatisticsMapper.toEntity va uning ichidagi dd.MM.yy parse hamda mapOpType
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(MapperBenchmark.ROWS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    static final int ROWS = 1_000;
+
+    private final TradeStatisticsMapper mapper = new TradeStatisticsMapperImpl();
+
+    private List<TradeStatisticDTO> dtos;
+
+    @Setup
+    public void setUp() {
+        dtos = TradeFixtures.dtos(ROWS, 0, 42);
+    }
+
+    @Benchmark
+    public void toEntity(Blackhole bh) {
+        for (TradeStatisticDTO dto : dtos) {
+            bh.consume(mapper.toEntity(dto));
+        }
+    }
+
+    @Benchmark
+    public void mapDate(Blackhole bh) {
+        for (TradeStatisticDTO dto : dtos) {
+            bh.consume(mapper.mapDate(dto.getDeclarationDate()));
+        }
+    }
+
+    @Benchmark
+    public void mapOpType(Blackhole bh) {
+        for (TradeStatisticDTO dto : dtos) {
+            bh.consume(mapper.mapOpType(dto.getOperationType()));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.example.importexportservice.benchmark;
+
+import org.example.importexportservice.codec.TradeStatPageDecoder;
+import org.example.importexportservice.dto.TradeStatPage;
+import org.example.importexportservice.dto.TradeStatisticDTO;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HS-code API sahifasi: butun sahifani TradeStatRespDto ga deserializatsiya
+ * (WebClient default codec'i kabi Jackson 3 JsonMapper) ↔ TradeStatPageDecoder bilan
+ * 8 KB li chunklardan stream qilib o'qish
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PageDecodeBenchmark {
+
+    @Param({"100", "1000"})
+    public int pageSize;
+
+    private static final int CHUNK_SIZE = 8 * 1024;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private final TradeStatPageDecoder streamingDecoder = new TradeStatPageDecoder();
+
+    private byte[] page;
+
+    @Setup
+    public void setUp() {
+        page = TradeFixtures.pageJson(pageSize, 50, 42).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public TradeStatisticDTO.TradeStatRespDto readPage() {
+        return jsonMapper.readValue(page, TradeStatisticDTO.TradeStatRespDto.class);
+    }
+
+    @Benchmark
+    public void streamPage(Blackhole bh) {
+        Flux<DataBuffer> chunks = Flux.range(0, (page.length + CHUNK_SIZE - 1) / CHUNK_SIZE)
+                .map(i -> DefaultDataBufferFactory.sharedInstance.wrap(
+                        Arrays.copyOfRange(page, i * CHUNK_SIZE, Math.min(page.length, (i + 1) * CHUNK_SIZE))));
+
+        streamingDecoder.decode(chunks, new TradeStatPage(1))
+                .doOnNext(bh::consume)
+                .blockLast();
+    }
+}
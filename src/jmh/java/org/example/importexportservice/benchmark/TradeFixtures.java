@@ -0,0 +1,120 @@
+package org.example.importexportservice.benchmark;
+
+import org.example.importexportservice.dto.TradeStatisticDTO;
+import org.example.importexportservice.entity.TradeData;
+import org.example.importexportservice.enums.TradeOperationType;
+import org.example.importexportservice.enums.TradeType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Benchmarklar uchun sintetik, lekin real ko'rinishdagi ma'lumotlar (seed bilan, takrorlanadigan)
+ */
+final class TradeFixtures {
+
+    private static final String[] COUNTRIES = {"156", "643", "398", "792", "276", "860", "417", "762"};
+    private static final DateTimeFormatter API_DATE = DateTimeFormatter.ofPattern("dd.MM.yy");
+
+    private TradeFixtures() {
+    }
+
+    static String inn(SplittableRandom random) {
+        // ~80% yuridik (9 raqam), qolgani jismoniy (14 raqam PINFL)
+        return random.nextInt(10) < 8
+                ? String.valueOf(200_000_000 + random.nextInt(399_999_999))
+                : String.valueOf(30_000_000_000_000L + random.nextLong(9_999_999_999_999L));
+    }
+
+    static String hsCode(SplittableRandom random) {
+        return String.format("%010d", random.nextLong(9_999_999_999L));
+    }
+
+    static BigDecimal goodsValue(SplittableRandom random) {
+        return BigDecimal.valueOf(random.nextLong(1, 50_000_000_000L), 3);
+    }
+
+    static String country(SplittableRandom random) {
+        return COUNTRIES[random.nextInt(COUNTRIES.length)];
+    }
+
+    static List<TradeData> entities(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        LocalDate base = LocalDate.of(2025, 1, 1);
+        List<TradeData> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String inn = inn(random);
+            rows.add(TradeData.builder()
+                    .tradeOperationType(random.nextBoolean() ? TradeOperationType.IMPORT : TradeOperationType.EXPORT)
+                    .tradeType(inn.length() == 9 ? TradeType.LEGAL : TradeType.INDIVIDUAL)
+                    .companyInn(inn)
+                    .hsCode(hsCode(random))
+                    .goodsValue(goodsValue(random))
+                    .countryCode(country(random))
+                    .declarationDate(base.plusDays(random.nextInt(365)))
+                    .build());
+        }
+        return rows;
+    }
+
+    /**
+     * API dan keladigan ko'rinishdagi DTO lar
+     *
+     * @param duplicateRatio qatorlarning qancha qismi oldingi qatorning identity'sini takrorlaydi (0..1)
+     */
+    static List<TradeStatisticDTO> dtos(int count, double duplicateRatio, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        LocalDate base = LocalDate.of(2025, 1, 1);
+        List<TradeStatisticDTO> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (i > 0 && random.nextDouble() < duplicateRatio) {
+                TradeStatisticDTO previous = rows.get(random.nextInt(i));
+                rows.add(new TradeStatisticDTO(
+                        previous.getOperationType(),
+                        previous.getHsCode(),
+                        goodsValue(random),
+                        previous.getCountryCode(),
+                        previous.getCompanyInn(),
+                        previous.getDeclarationDate()));
+                continue;
+            }
+            rows.add(TradeStatisticDTO.builder()
+                    .operationType(random.nextBoolean() ? "ИМ" : "ЭК")
+                    .hsCode(hsCode(random))
+                    .goodsValue(goodsValue(random))
+                    .countryCode(country(random))
+                    .companyInn(inn(random))
+                    .declarationDate(base.plusDays(random.nextInt(365)).format(API_DATE))
+                    .build());
+        }
+        return rows;
+    }
+
+    /**
+     * HS-code API sahifasining JSON ko'rinishi (resList + meta maydonlar)
+     */
+    static String pageJson(int count, int totalPages, long seed) {
+        StringBuilder sb = new StringBuilder(count * 160 + 128);
+        sb.append("{\"resList\":[");
+        List<TradeStatisticDTO> rows = dtos(count, 0, seed);
+        for (int i = 0; i < rows.size(); i++) {
+            TradeStatisticDTO r = rows.get(i);
+            if (i > 0) sb.append(',');
+            sb.append("{\"g01A\":\"").append(r.getOperationType())
+                    .append("\",\"g33A\":\"").append(r.getHsCode())
+                    .append("\",\"g46\":").append(r.getGoodsValue().toPlainString())
+                    .append(",\"g15_17\":\"").append(r.getCountryCode())
+                    .append("\",\"inn\":\"").append(r.getCompanyInn())
+                    .append("\",\"g54D\":\"").append(r.getDeclarationDate())
+                    .append("\"}");
+        }
+        sb.append("],\"error\":null,\"totalPages\":").append(totalPages)
+                .append(",\"totalElements\":").append((long) totalPages * count)
+                .append('}');
+        return sb.toString();
+    }
+}
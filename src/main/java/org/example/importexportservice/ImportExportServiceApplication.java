@@ -8,6 +8,8 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
+import java.util.Map;
+
 import static reactor.netty.http.HttpConnectionLiveness.log;
 
 @SpringBootApplication
@@ -15,7 +17,11 @@ import static reactor.netty.http.HttpConnectionLiveness.log;
 public class ImportExportServiceApplication{
 
     public static void main(String[] args) {
-        SpringApplication.run(ImportExportServiceApplication.class, args);
+        SpringApplication application = new SpringApplication(ImportExportServiceApplication.class);
+        // tashqi konfiguratsiyada berilmasa ham metrikalar /actuator/prometheus da ochiq
+        application.setDefaultProperties(Map.of(
+                "management.endpoints.web.exposure.include", "health,info,metrics,prometheus"));
+        application.run(args);
     }
 
 
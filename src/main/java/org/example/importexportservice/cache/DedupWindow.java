@@ -0,0 +1,167 @@
+package org.example.importexportservice.cache;
+
+import org.example.importexportservice.entity.TradeData;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bitta run (import, update yoki backfill) davomidagi dedup oynasi.
+ * <p>
+ * identity fingerprinti → oxirgi ko'rilgan unique_hash prefiksi ({@link FingerprintTable}, slot 16 bayt).
+ * Batchlar oraliq: xuddi shu kontent qayta kelsa qator tashlanadi (DB ga ham, hash indeksga ham bormaydi).
+ * Kontent farq qilsa va shu kalit hali yozilayotgan batchda bo'lsa, yangi batch o'sha batch tugashini
+ * kutadi ({@link Admission#ready()}) – bitta kalitga parallel yozuvlar unique constraint'da to'qnashmaydi.
+ * <p>
+ * Batch yozilmasa ({@link #complete} success=false) uning hash'lari oynadan o'chiriladi.
+ */
+public class DedupWindow {
+
+    private static final long MISSING = 0;
+
+    private final FingerprintTable lastSeen = new FingerprintTable(1 << 16);
+    private final int maxEntries;
+
+    // faqat yozilayotgan batchlar: fingerprint → batch seq
+    private final Map<Long, Long> inFlight = new HashMap<>();
+    private final Map<Long, Sinks.Empty<Void>> pending = new HashMap<>();
+
+    private long sequence;
+    private long dropped;
+    private long serialized;
+
+    /**
+     * Oynaga qabul qilingan batch: qolgan qatorlar va ular kutishi kerak bo'lgan oldingi batchlar
+     */
+    public static final class Admission {
+
+        private final long seq;
+        private final long[] fingerprints;
+        private final long[] hashes;
+        private final Mono<Void> ready;
+
+        private Admission(long seq, long[] fingerprints, long[] hashes, Mono<Void> ready) {
+            this.seq = seq;
+            this.fingerprints = fingerprints;
+            this.hashes = hashes;
+            this.ready = ready;
+        }
+
+        /**
+         * Shu kalitlarni yozayotgan oldingi batchlar tugaganda yakunlanadi
+         */
+        public Mono<Void> ready() {
+            return ready;
+        }
+    }
+
+    public DedupWindow(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Aniq takrorlarni {@code rows} dan o'chiradi (kolleksiya o'zgaradi)
+     */
+    public synchronized Admission admit(Collection<TradeData> rows) {
+
+        long seq = ++sequence;
+        List<Mono<Void>> waits = new ArrayList<>();
+        long[] fingerprints = new long[rows.size()];
+        long[] hashes = new long[rows.size()];
+        int kept = 0;
+
+        for (Iterator<TradeData> it = rows.iterator(); it.hasNext(); ) {
+            TradeData row = it.next();
+            if (row.getUniqueHash() == null) {
+                continue;
+            }
+
+            long fingerprint = TradeDataHashIndex.fingerprint(row);
+            long hash = TradeDataHashIndex.hashPrefix(row.getUniqueHash());
+            long last = lastSeen.get(fingerprint, MISSING);
+
+            if (last == hash) {
+                it.remove();
+                dropped++;
+                continue;
+            }
+
+            if (last != MISSING || lastSeen.size() < maxEntries) {
+                lastSeen.put(fingerprint, hash);
+            }
+
+            Long owner = inFlight.put(fingerprint, seq);
+            if (owner != null) {
+                Sinks.Empty<Void> done = pending.get(owner);
+                if (done != null) {
+                    waits.add(done.asMono());
+                }
+            }
+
+            fingerprints[kept] = fingerprint;
+            hashes[kept] = hash;
+            kept++;
+        }
+
+        pending.put(seq, Sinks.empty());
+        if (!waits.isEmpty()) {
+            serialized++;
+        }
+
+        return new Admission(seq,
+                Arrays.copyOf(fingerprints, kept),
+                Arrays.copyOf(hashes, kept),
+                waits.isEmpty() ? Mono.empty() : Mono.when(waits));
+    }
+
+    /**
+     * Batch yozildi (yoki yozilmadi): kalitlar bo'shatiladi, kutayotgan batchlar davom etadi
+     */
+    public void complete(Admission admission, boolean success) {
+
+        Sinks.Empty<Void> done;
+        synchronized (this) {
+            for (int i = 0; i < admission.fingerprints.length; i++) {
+                long fingerprint = admission.fingerprints[i];
+                inFlight.remove(fingerprint, admission.seq);
+                // yozilmagan kontent keyingi kelishida tashlab yuborilmasin
+                if (!success && lastSeen.get(fingerprint, MISSING) == admission.hashes[i]) {
+                    lastSeen.put(fingerprint, MISSING);
+                }
+            }
+            done = pending.remove(admission.seq);
+        }
+        if (done != null) {
+            done.tryEmitEmpty();
+        }
+    }
+
+    /**
+     * Run davomida tashlangan aniq takrorlar
+     */
+    public synchronized long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Oldingi batch tugashini kutishga majbur bo'lgan batchlar
+     */
+    public synchronized long getSerialized() {
+        return serialized;
+    }
+
+    public synchronized int size() {
+        return lastSeen.size();
+    }
+
+    public synchronized long memoryBytes() {
+        return lastSeen.memoryBytes();
+    }
+}
@@ -0,0 +1,109 @@
+package org.example.importexportservice.cache;
+
+import java.util.Arrays;
+
+/**
+ * Primitive open-addressing jadval: 64-bit kalit → 64-bit qiymat.
+ * Har bir slot 16 bayt, boxing va Entry obyektlari yo'q.
+ * 0 kalit "bo'sh slot" belgisi sifatida band, shu sabab 0 fingerprint 1 ga almashtiriladi.
+ * Thread-safe emas – sinxronizatsiya chaqiruvchi tomonda.
+ */
+class FingerprintTable {
+
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    FingerprintTable(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * @return qiymat yoki kalit yo'q bo'lsa {@code missing}
+     */
+    long get(long key, long missing) {
+        key = normalize(key);
+        int slot = slot(key);
+        while (true) {
+            long k = keys[slot];
+            if (k == 0) return missing;
+            if (k == key) return values[slot];
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    void put(long key, long value) {
+        key = normalize(key);
+        int slot = slot(key);
+        while (true) {
+            long k = keys[slot];
+            if (k == key) {
+                values[slot] = value;
+                return;
+            }
+            if (k == 0) {
+                keys[slot] = key;
+                values[slot] = value;
+                if (++size >= resizeAt) {
+                    resize();
+                }
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    void clear() {
+        Arrays.fill(keys, 0);
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return keys.length;
+    }
+
+    long memoryBytes() {
+        return (long) keys.length * Long.BYTES * 2;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long k = oldKeys[i];
+            if (k == 0) continue;
+            int slot = slot(k);
+            while (keys[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = k;
+            values[slot] = oldValues[i];
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private int slot(long key) {
+        // fingerprint allaqachon aralashtirilgan, yuqori bitlarni ham qo'shamiz
+        return (int) (key ^ (key >>> 32)) & mask;
+    }
+
+    private static long normalize(long key) {
+        return key == 0 ? 1 : key;
+    }
+}
@@ -0,0 +1,222 @@
+package org.example.importexportservice.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.importexportservice.entity.TradeData;
+import org.example.importexportservice.hash.IdentityKey;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * trade_data uchun xotiradagi indeks:
+ * identity (company_inn, hs_code, declaration_date, operation_type) fingerprinti → unique_hash ning birinchi 64 biti.
+ * <p>
+ * Import pipeline (dedup bosqichi) qatorni DB ga yuborishdan oldin shu yerdan tekshiradi:
+ * hash bir xil bo'lsa qator o'zgarmagan, SELECT ham kerak emas.
+ * Startda jadval stream qilib yuklanadi, keyin yozish yo'li yangilab boradi.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@Slf4j
+public class TradeDataHashIndex implements ApplicationRunner {
+
+    private static final String LOAD_SQL = """
+            SELECT company_inn, hs_code, declaration_date, operation_type, unique_hash
+            FROM trade_data
+            """;
+
+    private static final long MISSING = 0;
+
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final int maxEntries;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final FingerprintTable table;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private volatile boolean ready;
+
+    public TradeDataHashIndex(DataSource dataSource,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.import.hash-index.enabled:true}") boolean enabled,
+                              @Value("${app.import.hash-index.max-entries:20000000}") int maxEntries,
+                              @Value("${app.import.hash-index.fetch-size:10000}") int fetchSize,
+                              MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.table = new FingerprintTable(enabled ? 1 << 16 : 16);
+
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(fetchSize);
+
+        // PostgreSQL cursor bilan o'qishi uchun autocommit o'chiq bo'lishi kerak
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        // hit ulushi = dedup bosqichida SELECT'siz o'tkazib yuborilgan qatorlar
+        FunctionCounter.builder("trade.hash_index.lookups", this, i -> i.hits.sum())
+                .description("Hash indeks tekshiruvlari")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("trade.hash_index.lookups", this, i -> i.misses.sum())
+                .description("Hash indeks tekshiruvlari")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("trade.hash_index.size", this, TradeDataHashIndex::size)
+                .description("Indeksdagi fingerprintlar soni")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            reload();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void reload() {
+
+        long started = System.nanoTime();
+        ready = false;
+
+        lock.writeLock().lock();
+        try {
+            table.clear();
+            readOnlyTransaction.executeWithoutResult(status ->
+                    streamingJdbcTemplate.query(LOAD_SQL, rs -> {
+                        if (table.size() >= maxEntries) {
+                            return;
+                        }
+                        Date date = rs.getDate(3);
+                        long key = fingerprint(
+                                rs.getString(1),
+                                rs.getString(2),
+                                date == null ? null : date.toLocalDate(),
+                                rs.getString(4));
+                        table.put(key, hashPrefix(rs.getString(5)));
+                    }));
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info("🧠 Hash indeks yuklandi → {} qator, {} MB, {} ms{}",
+                table.size(),
+                table.memoryBytes() / (1024 * 1024),
+                (System.nanoTime() - started) / 1_000_000,
+                table.size() >= maxEntries ? " (max-entries ga yetdi, qolganlari DB dan tekshiriladi)" : "");
+    }
+
+    /**
+     * @return true → DB dagi hash bilan bir xil, qatorni yozish shart emas
+     */
+    public boolean isUnchanged(TradeData entity) {
+
+        if (!enabled || !ready || entity.getUniqueHash() == null) {
+            return false;
+        }
+
+        long stored;
+        lock.readLock().lock();
+        try {
+            stored = table.get(fingerprint(entity), MISSING);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (stored != MISSING && stored == hashPrefix(entity.getUniqueHash())) {
+            hits.increment();
+            return true;
+        }
+        misses.increment();
+        return false;
+    }
+
+    /**
+     * Yozilgandan keyin: DB da endi shu qatorlarning uniqueHash'i turibdi
+     */
+    public void putAll(Collection<TradeData> rows) {
+
+        if (!enabled || !ready) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (TradeData row : rows) {
+                if (row.getUniqueHash() == null || table.size() >= maxEntries) {
+                    continue;
+                }
+                table.put(fingerprint(row), hashPrefix(row.getUniqueHash()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return table.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static long fingerprint(TradeData entity) {
+        return fingerprint(
+                entity.getCompanyInn(),
+                entity.getHsCode(),
+                entity.getDeclarationDate(),
+                entity.getTradeOperationType() == null ? null : entity.getTradeOperationType().name());
+    }
+
+    static long fingerprint(String companyInn, String hsCode, LocalDate declarationDate, String operationType) {
+        return IdentityKey.fingerprint64(companyInn, hsCode, declarationDate, operationType);
+    }
+
+    /**
+     * SHA-256 hex ning birinchi 16 belgisi → long (0 band, shuning uchun 1 bilan OR)
+     */
+    static long hashPrefix(String hexHash) {
+        long v = 0;
+        int len = Math.min(16, hexHash.length());
+        for (int i = 0; i < len; i++) {
+            v = (v << 4) | Character.digit(hexHash.charAt(i), 16);
+        }
+        return v | 1;
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.importexportservice.cache;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Kichik in-process cache: har yozuv o'z muddatiga ega, to'lganda eng uzoq ishlatilmagani chiqariladi.
+ * Enrich bir run ichida bir INN ni qayta so'ramasligi uchun (persistent store oldida).
+ */
+public class TtlLruCache<K, V> {
+
+    private record Entry<V>(V value, Instant expiresAt) {
+    }
+
+    private final Map<K, Entry<V>> entries;
+    private final Supplier<Instant> clock;
+
+    private long evictions;
+
+    public TtlLruCache(int maxEntries) {
+        this(maxEntries, Instant::now);
+    }
+
+    TtlLruCache(int maxEntries, Supplier<Instant> clock) {
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return muddati o'tmagan qiymat yoki null
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.expiresAt().isAfter(clock.get())) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value();
+    }
+
+    public synchronized void put(K key, V value, Instant expiresAt) {
+        entries.put(key, new Entry<>(value, expiresAt));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+}
@@ -0,0 +1,203 @@
+package org.example.importexportservice.codec;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.example.importexportservice.dto.TradeStatPage;
+import org.example.importexportservice.dto.TradeStatisticDTO;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * HS-code API javobini butun sahifani xotiraga yig'masdan o'qiydi.
+ * <p>
+ * DataBuffer'lar kelishi bilan non-blocking Jackson parserga beriladi,
+ * resList ning har bir elementi alohida TokenBuffer ga yig'ilib TradeStatisticDTO bo'lib chiqadi,
+ * totalPages / totalElements / error esa {@link TradeStatPage} ga yoziladi.
+ * Xotira sahifa hajmiga emas, bitta element va bitta chunk hajmiga bog'liq.
+ */
+@Component
+public class TradeStatPageDecoder {
+
+    private static final String RES_LIST = "resList";
+
+    private final ObjectMapper objectMapper;
+    private final ObjectReader rowReader;
+
+    public TradeStatPageDecoder() {
+        this.objectMapper = new ObjectMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        this.rowReader = objectMapper.readerFor(TradeStatisticDTO.class);
+    }
+
+    public Flux<TradeStatisticDTO> decode(Flux<DataBuffer> body, TradeStatPage page) {
+        return Flux.defer(() -> {
+            PageParser parser = new PageParser(page);
+            return body
+                    .concatMapIterable(parser::feed)
+                    .concatWith(Flux.defer(() -> Flux.fromIterable(parser.finish())))
+                    .doFinally(signal -> parser.close());
+        });
+    }
+
+    private final class PageParser {
+
+        private final TradeStatPage page;
+        private final JsonParser parser;
+        private final ByteBufferFeeder feeder;
+
+        private int rootDepth;
+        private String rootField;
+        private boolean inResList;
+        private int skipDepth;
+
+        private TokenBuffer element;
+        private int elementDepth;
+
+        PageParser(TradeStatPage page) {
+            this.page = page;
+            try {
+                this.parser = objectMapper.getFactory().createNonBlockingByteBufferParser();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            this.feeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+        }
+
+        List<TradeStatisticDTO> feed(DataBuffer buffer) {
+            try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+                List<TradeStatisticDTO> rows = new ArrayList<>();
+                while (iterator.hasNext()) {
+                    ByteBuffer chunk = iterator.next();
+                    feeder.feedInput(chunk);
+                    parse(rows);
+                }
+                return rows;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                DataBufferUtils.release(buffer);
+            }
+        }
+
+        List<TradeStatisticDTO> finish() {
+            try {
+                feeder.endOfInput();
+                List<TradeStatisticDTO> rows = new ArrayList<>();
+                parse(rows);
+                return rows;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void close() {
+            try {
+                parser.close();
+            } catch (IOException ignored) {
+                // parser faqat xotiradagi bufferlarni ushlaydi
+            }
+        }
+
+        private void parse(List<TradeStatisticDTO> rows) throws IOException {
+
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+
+                if (element != null) {
+                    element.copyCurrentEvent(parser);
+                    elementDepth += depthDelta(token);
+                    if (elementDepth == 0) {
+                        TradeStatisticDTO row = rowReader.readValue(element.asParser(objectMapper));
+                        rows.add(row);
+                        page.incrementReceived();
+                        element = null;
+                    }
+                    continue;
+                }
+
+                if (skipDepth > 0) {
+                    skipDepth += depthDelta(token);
+                    continue;
+                }
+
+                if (inResList) {
+                    if (token == JsonToken.START_OBJECT) {
+                        element = new TokenBuffer(parser);
+                        element.forceUseOfBigDecimal(true);
+                        element.copyCurrentEvent(parser);
+                        elementDepth = 1;
+                    } else if (token == JsonToken.START_ARRAY) {
+                        skipDepth = 1;
+                    } else if (token == JsonToken.END_ARRAY) {
+                        inResList = false;
+                    }
+                    continue;
+                }
+
+                if (rootDepth == 0) {
+                    if (token == JsonToken.START_OBJECT) rootDepth = 1;
+                    continue;
+                }
+
+                if (token == JsonToken.FIELD_NAME) {
+                    rootField = parser.currentName();
+                } else if (token == JsonToken.END_OBJECT) {
+                    rootDepth = 0;
+                } else if (RES_LIST.equals(rootField) && token == JsonToken.START_ARRAY) {
+                    inResList = true;
+                } else if (token.isStructStart()) {
+                    skipDepth = 1;
+                } else {
+                    readRootValue(token);
+                }
+            }
+        }
+
+        private void readRootValue(JsonToken token) throws IOException {
+            if (rootField == null) {
+                return;
+            }
+            switch (rootField) {
+                case "error" -> page.setErrorCode(token == JsonToken.VALUE_NULL ? null : parser.getText());
+                case "totalPages" -> page.setTotalPages(intValue(token));
+                case "totalElements" -> page.setTotalElements(intValue(token));
+                default -> {
+                    // boshqa maydonlar kerak emas
+                }
+            }
+        }
+
+        private Integer intValue(JsonToken token) throws IOException {
+            if (token == JsonToken.VALUE_NUMBER_INT) {
+                return parser.getIntValue();
+            }
+            if (token == JsonToken.VALUE_STRING) {
+                try {
+                    return Integer.valueOf(parser.getText().trim());
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+            return null;
+        }
+
+        private int depthDelta(JsonToken token) {
+            if (token.isStructStart()) return 1;
+            if (token.isStructEnd()) return -1;
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.importexportservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.example.importexportservice.dto.repsonse.IndividualResponseDto;
+import org.example.importexportservice.dto.repsonse.LegalResponseDto;
+import org.example.importexportservice.limiter.AdaptiveConcurrencyLimiter;
+import org.example.importexportservice.limiter.SingleFlight;
+import org.example.importexportservice.limiter.TokenBucket;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.util.concurrent.TimeoutException;
+
+@Configuration
+public class ApiClientConfig {
+
+    /**
+     * HS-code API uchun umumiy limiter (import va update bir xil limitni bo'lishadi).
+     * app.api.hscode.import/update-concurrency endi faqat yuqori chegara.
+     */
+    @Bean
+    public AdaptiveConcurrencyLimiter hsCodeApiLimiter(
+            @Value("${app.api.hscode.limiter.initial-limit:10}") int initialLimit,
+            @Value("${app.api.hscode.limiter.min-limit:1}") int minLimit,
+            @Value("${app.api.hscode.limiter.max-limit:64}") int maxLimit,
+            @Value("${app.api.hscode.limiter.latency-tolerance:2.0}") double tolerance,
+            @Value("${app.api.hscode.limiter.backoff-ratio:0.7}") double backoffRatio,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+
+        return new AdaptiveConcurrencyLimiter(
+                "hscode",
+                initialLimit,
+                minLimit,
+                maxLimit,
+                tolerance,
+                backoffRatio,
+                ApiClientConfig::isOverload,
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    /**
+     * Legal/Individual API kvotasi (sekundiga so'rov); enrich parallelligi shu tezlikdan oshmaydi
+     */
+    @Bean
+    public TokenBucket businessRegRateLimiter(
+            @Value("${app.api.business-reg.rate-limit.permits-per-second:10}") double permitsPerSecond,
+            @Value("${app.api.business-reg.rate-limit.burst:10}") int burst,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+
+        return new TokenBucket(
+                "business-reg",
+                permitsPerSecond,
+                burst,
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    /**
+     * Bir INN uchun parallel Legal so'rovlari bitta upstream chaqiruvga birlashtiriladi
+     */
+    @Bean
+    public SingleFlight<String, LegalResponseDto> legalLookups(
+            @Value("${app.api.business-reg.single-flight.max-in-flight:10000}") int maxInFlight,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new SingleFlight<>("business-reg-legal", maxInFlight,
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    @Bean
+    public SingleFlight<String, IndividualResponseDto> individualLookups(
+            @Value("${app.api.business-reg.single-flight.max-in-flight:10000}") int maxInFlight,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new SingleFlight<>("business-reg-individual", maxInFlight,
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    /**
+     * Upstream yuklama signali: 429, 5xx, timeout va ulanish xatolari (boshqa 4xx emas)
+     */
+    static boolean isOverload(Throwable e) {
+        if (e instanceof WebClientResponseException response) {
+            return response.getStatusCode().value() == 429 || response.getStatusCode().is5xxServerError();
+        }
+        return e instanceof TimeoutException || e instanceof WebClientRequestException;
+    }
+}
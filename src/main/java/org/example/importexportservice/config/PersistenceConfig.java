@@ -0,0 +1,48 @@
+package org.example.importexportservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class PersistenceConfig {
+
+    /**
+     * IDENTITY o'rniga sequence (pooled-lo) → Hibernate insertlarni JDBC batch qila oladi.
+     * pooled-lo tanlangan, chunki bulk/COPY yo'llari id ni to'g'ridan-to'g'ri
+     * nextval('trade_data_seq') dan oladi va pooled bilan to'qnashardi.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer batchingHibernatePropertiesCustomizer(
+            @Value("${app.persistence.jdbc-batch-size:500}") int batchSize) {
+        return properties -> {
+            properties.putIfAbsent("hibernate.jdbc.batch_size", batchSize);
+            properties.putIfAbsent("hibernate.order_inserts", true);
+            properties.putIfAbsent("hibernate.order_updates", true);
+            properties.putIfAbsent("hibernate.jdbc.batch_versioned_data", true);
+            properties.putIfAbsent("hibernate.id.optimizer.pooled.preferred", "pooled-lo");
+            // trade_data constraintlarini db/migration yuritadi (partitioned jadval) – ddl-auto tegmasin
+            properties.putIfAbsent("hibernate.schema_update.unique_constraint_strategy", "SKIP");
+        };
+    }
+
+    /**
+     * PostgreSQL driver batch insertlarni multi-row INSERT ga aylantiradi
+     */
+    @Bean
+    public static BeanPostProcessor rewriteBatchedInsertsPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource
+                        && !dataSource.getDataSourceProperties().containsKey("reWriteBatchedInserts")) {
+                    dataSource.addDataSourceProperty("reWriteBatchedInserts", "true");
+                }
+                return bean;
+            }
+        };
+    }
+}
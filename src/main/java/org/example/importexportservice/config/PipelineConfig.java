@@ -0,0 +1,97 @@
+package org.example.importexportservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.example.importexportservice.enums.ExecutionMode;
+import org.example.importexportservice.limiter.BlockingSchedulers;
+import org.example.importexportservice.limiter.PipelineStage;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Import pipeline bosqichlari: fetch (hsCodeApiLimiter) → map → dedup → persist.
+ * map va dedup CPU ishi – parallel scheduler, persist JDBC – {@link #blockingScheduler}.
+ */
+@Configuration
+@Slf4j
+public class PipelineConfig {
+
+    @Bean
+    public PipelineStage mapStage(
+            @Value("${app.pipeline.map.workers:0}") int workers,
+            @Value("${app.pipeline.map.queue-capacity:4}") int queueCapacity,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+
+        int resolved = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        return new PipelineStage("map", resolved, queueCapacity, Schedulers.parallel(),
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    @Bean
+    public PipelineStage dedupStage(
+            @Value("${app.pipeline.dedup.workers:2}") int workers,
+            @Value("${app.pipeline.dedup.queue-capacity:4}") int queueCapacity,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+
+        return new PipelineStage("dedup", workers, queueCapacity, Schedulers.parallel(),
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    /**
+     * PLATFORM → boundedElastic; VIRTUAL → har vazifaga virtual thread (Java 21+).
+     * Ikkala holatda ham bir vaqtdagi DB ishlari soni persistStage gate'i bilan cheklanadi, thread soni bilan emas.
+     * Umumiy boundedElastic uchun dispose() hech narsa qilmaydi.
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler blockingScheduler(@Value("${app.pipeline.execution-mode:PLATFORM}") ExecutionMode mode) {
+        return BlockingSchedulers.create(mode, "jdbc");
+    }
+
+    /**
+     * Har persist ishchisi bitta connection band qiladi → workers=0 bo'lsa Hikari pool hajmidan
+     * reserved-connections (checkpoint, enrich, read API uchun) ayirib olinadi
+     */
+    @Bean
+    public PipelineStage persistStage(
+            @Value("${app.pipeline.persist.workers:0}") int workers,
+            @Value("${app.pipeline.persist.reserved-connections:2}") int reservedConnections,
+            @Value("${app.pipeline.persist.queue-capacity:2}") int queueCapacity,
+            DataSource dataSource,
+            Scheduler blockingScheduler,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+
+        int resolved = workers;
+        if (resolved <= 0) {
+            int poolSize = poolSize(dataSource);
+            resolved = Math.max(1, poolSize - reservedConnections);
+            log.info("🗄 Persist ishchilari pool bo'yicha → pool={}, reserved={}, workers={}",
+                    poolSize, reservedConnections, resolved);
+        }
+
+        return new PipelineStage("persist", resolved, queueCapacity, blockingScheduler,
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    /**
+     * Hikari bo'lmasa (yoki o'ralgan bo'lsa) Hikari default'i – 10
+     */
+    static int poolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            log.warn("⚠️ Pool hajmi aniqlanmadi: {}", e.getMessage());
+        }
+        return 10;
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.importexportservice.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * db/migration/*.sql skriptlarini nomi bo'yicha tartib bilan ishga tushiradi.
+ * Skriptlar idempotent yozilgan (har startda qayta ishlaydi), jadvallarni
+ * Hibernate ddl-auto yaratgandan keyin to'g'rilaydi.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+@Slf4j
+public class SchemaMigrationRunner implements ApplicationRunner {
+
+    private static final String LOCATION = "classpath:db/migration/*.sql";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.schema.migrations-enabled:true}")
+    private boolean enabled;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+
+        if (!enabled) {
+            log.info("⏭ Schema migration o'chirilgan");
+            return;
+        }
+
+        Resource[] scripts = new PathMatchingResourcePatternResolver().getResources(LOCATION);
+        Arrays.sort(scripts, Comparator.comparing(Resource::getFilename));
+
+        for (Resource script : scripts) {
+            log.info("🛠 Migration → {}", script.getFilename());
+            jdbcTemplate.execute(script.getContentAsString(StandardCharsets.UTF_8));
+        }
+    }
+}
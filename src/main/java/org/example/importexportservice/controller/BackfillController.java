@@ -0,0 +1,68 @@
+package org.example.importexportservice.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.importexportservice.dto.BackfillDay;
+import org.example.importexportservice.service.TradeBackfillService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/backfill")
+@RequiredArgsConstructor
+@Slf4j
+public class BackfillController {
+
+    private final TradeBackfillService tradeBackfillService;
+
+    /**
+     * Backfill fonda ishga tushadi (202); jarayonni GET /api/backfill orqali kuzatish mumkin
+     */
+    @PostMapping
+    public Mono<ResponseEntity<Void>> start(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "false") boolean force) {
+
+        if (tradeBackfillService.isRunning()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Backfill allaqachon ishlamoqda");
+        }
+
+        Mono<List<BackfillDay>> run;
+        try {
+            run = tradeBackfillService.backfill(from, to, force);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        run.subscribe(days -> { }, e -> log.error("❌ Fon backfill xatosi → {} → {}", from, to, e));
+
+        return Mono.just(ResponseEntity.accepted().build());
+    }
+
+    /**
+     * Oraliqdagi kunlar holati (PENDING / RUNNING / DONE / FAILED)
+     */
+    @GetMapping
+    public Mono<List<BackfillDay>> days(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        try {
+            return tradeBackfillService.days(from, to);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.importexportservice.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.example.importexportservice.dto.TradeChangeEvent;
+import org.example.importexportservice.service.TradeChangeOutbox;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/changes")
+@RequiredArgsConstructor
+public class TradeChangeController {
+
+    private static final int MAX_LIMIT = 10_000;
+
+    private final TradeChangeOutbox tradeChangeOutbox;
+
+    /**
+     * Bitta sahifa: keyingi so'rovda oxirgi hodisaning txid'i → {@code afterTxid}, seq'i → {@code after}
+     */
+    @GetMapping
+    public Mono<List<TradeChangeEvent>> findChanges(
+            @RequestParam(defaultValue = "0") long afterTxid,
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "1000") int limit) {
+
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit 1.." + MAX_LIMIT + " oralig‘ida bo‘lishi kerak");
+        }
+        if (afterTxid < 0 || after < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "afterTxid/after manfiy bo‘lmasligi kerak");
+        }
+
+        return tradeChangeOutbox.findAfter(afterTxid, after, limit);
+    }
+
+    /**
+     * (afterTxid, after) dan keyingi barcha hodisalar NDJSON oqimi (backpressure bilan sahifalab o'qiladi)
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<TradeChangeEvent> streamChanges(@RequestParam(defaultValue = "0") long afterTxid,
+                                                @RequestParam(defaultValue = "0") long after) {
+
+        if (afterTxid < 0 || after < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "afterTxid/after manfiy bo‘lmasligi kerak");
+        }
+
+        return tradeChangeOutbox.stream(afterTxid, after);
+    }
+}
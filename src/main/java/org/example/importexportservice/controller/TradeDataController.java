@@ -0,0 +1,129 @@
+package org.example.importexportservice.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.example.importexportservice.dto.KeysetPage;
+import org.example.importexportservice.dto.TradeDataQuery;
+import org.example.importexportservice.dto.TradeDataView;
+import org.example.importexportservice.entity.Organization;
+import org.example.importexportservice.enums.TradeOperationType;
+import org.example.importexportservice.service.TradeDataQueryService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+public class TradeDataController {
+
+    private static final int MAX_LIMIT = 1000;
+
+    private static final String CSV_HEADER =
+            "id,operation_type,trade_type,company_inn,hs_code,goods_value,country_code,declaration_date\n";
+
+    private final TradeDataQueryService tradeDataQueryService;
+
+    /**
+     * Keyset pagination: keyingi sahifa uchun javobdagi nextCursor → {@code after}
+     */
+    @GetMapping("/trade-data")
+    public Mono<KeysetPage<TradeDataView>> findTradeData(
+            @RequestParam(required = false) String inn,
+            @RequestParam(required = false) String hsPrefix,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) TradeOperationType operationType,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "100") int limit) {
+
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit 1.." + MAX_LIMIT + " oralig‘ida bo‘lishi kerak");
+        }
+
+        return tradeDataQueryService.findPage(filter(inn, hsPrefix, from, to, operationType), after, limit);
+    }
+
+    /**
+     * To'liq eksport: NDJSON (default) yoki CSV, qatorlar cursor'dan backpressure bilan oqadi
+     */
+    @GetMapping(value = "/trade-data/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<TradeDataView> exportNdjson(
+            @RequestParam(required = false) String inn,
+            @RequestParam(required = false) String hsPrefix,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) TradeOperationType operationType) {
+
+        return tradeDataQueryService.export(filter(inn, hsPrefix, from, to, operationType));
+    }
+
+    @GetMapping(value = "/trade-data/export", produces = "text/csv")
+    public Flux<String> exportCsv(
+            @RequestParam(required = false) String inn,
+            @RequestParam(required = false) String hsPrefix,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) TradeOperationType operationType,
+            ServerWebExchange exchange) {
+
+        exchange.getResponse().getHeaders()
+                .set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"trade-data.csv\"");
+
+        return Flux.concat(
+                Flux.just(CSV_HEADER),
+                tradeDataQueryService.export(filter(inn, hsPrefix, from, to, operationType))
+                        .map(TradeDataController::toCsvLine));
+    }
+
+    @GetMapping("/organizations/{inn}")
+    public Mono<Organization> findOrganization(@PathVariable String inn) {
+        return tradeDataQueryService.findOrganization(inn);
+    }
+
+    private static TradeDataQuery filter(String inn, String hsPrefix, LocalDate from, LocalDate to,
+                                         TradeOperationType operationType) {
+        return new TradeDataQuery(blankToNull(inn), blankToNull(hsPrefix), from, to, operationType, null, null);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private static String toCsvLine(TradeDataView row) {
+        StringBuilder sb = new StringBuilder(128);
+        sb.append(row.id()).append(',');
+        appendField(sb, row.operationType()).append(',');
+        appendField(sb, row.tradeType()).append(',');
+        appendField(sb, row.companyInn()).append(',');
+        appendField(sb, row.hsCode()).append(',');
+        appendField(sb, row.goodsValue() == null ? null : row.goodsValue().toPlainString()).append(',');
+        appendField(sb, row.countryCode()).append(',');
+        appendField(sb, row.declarationDate() == null ? null : row.declarationDate().toString());
+        return sb.append('\n').toString();
+    }
+
+    private static StringBuilder appendField(StringBuilder sb, String value) {
+        if (value == null) {
+            return sb;
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') sb.append('"');
+            sb.append(c);
+        }
+        return sb.append('"');
+    }
+}
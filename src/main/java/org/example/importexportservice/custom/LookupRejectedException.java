@@ -0,0 +1,11 @@
+package org.example.importexportservice.custom;
+
+/**
+ * Upstream so'rovni 4xx bilan rad etdi (429 dan tashqari) – retry qilinmaydi
+ */
+public class LookupRejectedException extends RuntimeException {
+
+    public LookupRejectedException(String message) {
+        super(message);
+    }
+}
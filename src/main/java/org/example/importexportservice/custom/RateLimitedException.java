@@ -0,0 +1,19 @@
+package org.example.importexportservice.custom;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Upstream 429 qaytardi; Retry-After bo'lsa shu yerda
+ */
+@Getter
+public class RateLimitedException extends BusinessRegApiException {
+
+    private final Duration retryAfter;
+
+    public RateLimitedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.importexportservice.dto;
+
+import org.example.importexportservice.enums.DayStatus;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Backfill oralig'idagi bitta kunning holati
+ */
+public record BackfillDay(LocalDate reqDate,
+                          DayStatus status,
+                          int attempts,
+                          Long rowCount,
+                          String lastError,
+                          Instant startedAt,
+                          Instant finishedAt) {
+}
@@ -0,0 +1,18 @@
+package org.example.importexportservice.dto;
+
+import java.util.List;
+
+/**
+ * @param changes insert/update bo'lgan qatorlarning eski → yangi qiymatlari (rollup uchun);
+ *                set-based yo'llarda (COPY MERGE) bo'sh
+ */
+public record BatchWriteResult(int inserted, int updated, int skipped, List<TradeValueChange> changes) {
+
+    public BatchWriteResult(int inserted, int updated, int skipped) {
+        this(inserted, updated, skipped, List.of());
+    }
+
+    public static BatchWriteResult empty() {
+        return new BatchWriteResult(0, 0, 0);
+    }
+}
@@ -0,0 +1,9 @@
+package org.example.importexportservice.dto;
+
+import java.util.List;
+
+/**
+ * @param nextCursor keyingi sahifa uchun {@code after} qiymati; oxirgi sahifada null
+ */
+public record KeysetPage<T>(List<T> items, String nextCursor) {
+}
@@ -0,0 +1,22 @@
+package org.example.importexportservice.dto;
+
+import org.example.importexportservice.entity.Organization;
+import org.example.importexportservice.enums.LookupOutcome;
+
+/**
+ * Bitta INN enrich natijasi; organization faqat FOUND bo'lganda to'ldiriladi
+ */
+public record LookupResult(String inn, LookupOutcome outcome, Organization organization, String error) {
+
+    public static LookupResult found(Organization organization) {
+        return new LookupResult(organization.getInn(), LookupOutcome.FOUND, organization, null);
+    }
+
+    public static LookupResult notFound(String inn, String error) {
+        return new LookupResult(inn, LookupOutcome.NOT_FOUND, null, error);
+    }
+
+    public static LookupResult transientError(String inn, String error) {
+        return new LookupResult(inn, LookupOutcome.TRANSIENT_ERROR, null, error);
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.importexportservice.dto;
+
+import java.util.Set;
+
+/**
+ * Oldingi (uzilgan) importdan qolgan holat: tugagan sahifalar va ular haqidagi ma'lumot
+ */
+public record ResumePoint(Set<Integer> completedPages,
+                          Integer totalPages,
+                          Integer totalElements,
+                          long completedRows) {
+
+    public static ResumePoint fresh() {
+        return new ResumePoint(Set.of(), null, null, 0);
+    }
+
+    public boolean isCompleted(int page) {
+        return completedPages.contains(page);
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.importexportservice.dto;
+
+import java.time.LocalDate;
+
+/**
+ * trade_slice_digests kaliti
+ *
+ * @param hsChapter hs_code prefiksi; (sana, operatsiya) bo'lagi darajasida null
+ */
+public record SliceKey(LocalDate declarationDate, String operationType, String hsChapter) {
+
+    public SliceKey slice() {
+        return new SliceKey(declarationDate, operationType, null);
+    }
+}
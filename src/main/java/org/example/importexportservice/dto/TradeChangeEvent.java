@@ -0,0 +1,26 @@
+package org.example.importexportservice.dto;
+
+import org.example.importexportservice.enums.ChangeOp;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Outbox hodisasi: identity kaliti, goods_value eski → yangi va yozilgan hash.
+ *
+ * @param txid keyingi o'qish uchun {@code afterTxid} qiymati (yozgan tranzaksiya)
+ * @param seq  keyingi o'qish uchun {@code after} qiymati
+ */
+public record TradeChangeEvent(long txid,
+                               long seq,
+                               ChangeOp op,
+                               String operationType,
+                               String companyInn,
+                               String hsCode,
+                               LocalDate declarationDate,
+                               BigDecimal oldGoodsValue,
+                               BigDecimal newGoodsValue,
+                               String uniqueHash,
+                               Instant createdAt) {
+}
@@ -0,0 +1,18 @@
+package org.example.importexportservice.dto;
+
+import org.example.importexportservice.enums.TradeOperationType;
+
+import java.time.LocalDate;
+
+/**
+ * Read API filtrlari; null → filtr qo'llanmaydi.
+ * afterDate/afterId – keyset kursori (oldingi sahifaning oxirgi qatori).
+ */
+public record TradeDataQuery(String companyInn,
+                             String hsPrefix,
+                             LocalDate from,
+                             LocalDate to,
+                             TradeOperationType operationType,
+                             LocalDate afterDate,
+                             Long afterId) {
+}
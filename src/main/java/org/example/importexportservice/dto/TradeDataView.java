@@ -0,0 +1,17 @@
+package org.example.importexportservice.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Read API uchun trade_data qatori (unique_hash ichki maydon, tashqariga chiqmaydi)
+ */
+public record TradeDataView(Long id,
+                            String operationType,
+                            String tradeType,
+                            String companyInn,
+                            String hsCode,
+                            BigDecimal goodsValue,
+                            String countryCode,
+                            LocalDate declarationDate) {
+}
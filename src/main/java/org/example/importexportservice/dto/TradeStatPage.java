@@ -0,0 +1,44 @@
+package org.example.importexportservice.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * HS-code API sahifasining meta ma'lumotlari.
+ * resList elementlari stream qilib chiqariladi, bu yerda faqat sahifa haqidagi
+ * maydonlar (totalPages, totalElements, error) va kelgan qatorlar soni yig'iladi.
+ * Qiymatlar sahifa oqimi tugagandan keyin to'liq bo'ladi.
+ */
+@Getter
+@Setter
+public class TradeStatPage {
+
+    private final int page;
+
+    private Integer totalPages;
+
+    private Integer totalElements;
+
+    private String errorCode;
+
+    private int received;
+
+    /** Sahifa retry'lardan keyin ham yuklanmadi */
+    private boolean failed;
+
+    public TradeStatPage(int page) {
+        this.page = page;
+    }
+
+    public void reset() {
+        totalPages = null;
+        totalElements = null;
+        errorCode = null;
+        received = 0;
+        failed = false;
+    }
+
+    public void incrementReceived() {
+        received++;
+    }
+}
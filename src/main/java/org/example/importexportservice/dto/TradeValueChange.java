@@ -0,0 +1,42 @@
+package org.example.importexportservice.dto;
+
+import org.example.importexportservice.entity.TradeData;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Yozilgan qator delta'si: insertda eski qiymatlar null.
+ * Identity (op, inn, hs, date) o'zgarmaydi, update faqat goods_value va country_code ni almashtiradi.
+ * Rollup va CDC outbox shu delta'dan yoziladi.
+ *
+ * @param uniqueHash yozilgan (yangi) kontent hash'i
+ */
+public record TradeValueChange(String operationType,
+                               String companyInn,
+                               String hsCode,
+                               LocalDate declarationDate,
+                               String oldCountryCode,
+                               BigDecimal oldGoodsValue,
+                               String newCountryCode,
+                               BigDecimal newGoodsValue,
+                               String uniqueHash,
+                               boolean inserted) {
+
+    public static TradeValueChange inserted(TradeData row) {
+        return new TradeValueChange(operationType(row), row.getCompanyInn(), row.getHsCode(), row.getDeclarationDate(),
+                null, null, row.getCountryCode(), row.getGoodsValue(), row.getUniqueHash(), true);
+    }
+
+    /**
+     * @param row yangi qiymatlar bilan
+     */
+    public static TradeValueChange updated(TradeData row, String oldCountryCode, BigDecimal oldGoodsValue) {
+        return new TradeValueChange(operationType(row), row.getCompanyInn(), row.getHsCode(), row.getDeclarationDate(),
+                oldCountryCode, oldGoodsValue, row.getCountryCode(), row.getGoodsValue(), row.getUniqueHash(), false);
+    }
+
+    private static String operationType(TradeData row) {
+        return row.getTradeOperationType() == null ? null : row.getTradeOperationType().name();
+    }
+}
@@ -0,0 +1,21 @@
+package org.example.importexportservice.dto.repsonse;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TokenResponseDto {
+
+    @JsonProperty("access_token")
+    private String accessToken;
+
+    // soniyalarda; server bermasa TokenHolder default muddatni ishlatadi
+    @JsonProperty("expires_in")
+    private Long expiresIn;
+}
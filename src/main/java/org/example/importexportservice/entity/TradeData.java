@@ -5,13 +5,13 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.apache.commons.codec.digest.DigestUtils;
 import org.example.importexportservice.enums.TradeOperationType;
 import org.example.importexportservice.enums.TradeType;
+import org.example.importexportservice.hash.ContentHash;
+import org.example.importexportservice.hash.IdentityKey;
 import org.hibernate.sql.Insert;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 
 @Entity
@@ -19,6 +19,7 @@ import java.time.LocalDate;
 @Table(
         name = "trade_data",
         uniqueConstraints = @UniqueConstraint(
+                name = "uk_trade_data_identity",
                 columnNames = {
                         "company_inn",
                         "hs_code",
@@ -32,7 +33,8 @@ import java.time.LocalDate;
 public class TradeData {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trade_data_seq")
+    @SequenceGenerator(name = "trade_data_seq", sequenceName = "trade_data_seq", allocationSize = 50)
     private Long id;
 
     @Enumerated(EnumType.STRING)
@@ -52,11 +54,6 @@ public class TradeData {
     @Column(name = "goods_value", precision = 19, scale = 3)
     private BigDecimal goodsValue;
 
-    private String normalizeGoodsValue(BigDecimal value) {
-        if (value == null) return "0";
-        return value.stripTrailingZeros().toPlainString();
-    }
-
     @Column(name = "country_code")
     private String countryCode;
 
@@ -67,15 +64,29 @@ public class TradeData {
     private String uniqueHash;
 
 
+    /**
+     * identity key (hash emas!) – unique constraint ustunlari
+     */
+    public IdentityKey identityKey() {
+        return IdentityKey.of(
+                companyInn,
+                hsCode,
+                declarationDate,
+                tradeOperationType == null ? null : tradeOperationType.name()
+        );
+    }
+
+    /**
+     * sha256Hex("op|hsCode|goodsValue|countryCode|companyInn|date") – DB dagi unique_hash bilan mos
+     */
     public String calculateHash() {
-        String data = String.join("|",
+        return ContentHash.sha256Hex(
                 tradeOperationType.name(),
                 hsCode,
-                normalizeGoodsValue(goodsValue),
+                goodsValue,
                 countryCode,
                 companyInn,
-                declarationDate.toString()
+                declarationDate
         );
-        return DigestUtils.sha256Hex(data);
     }
 }
@@ -0,0 +1,13 @@
+package org.example.importexportservice.enums;
+
+/**
+ * trade_change_outbox dagi hodisa turi
+ */
+public enum ChangeOp {
+
+    /** Yangi identity – eski qiymat yo'q */
+    INSERT,
+
+    /** Mavjud identity, unique_hash o'zgargan */
+    UPDATE
+}
@@ -0,0 +1,19 @@
+package org.example.importexportservice.enums;
+
+/**
+ * backfill_days dagi kun holati
+ */
+public enum DayStatus {
+
+    /** Navbatda, hali olinmagan */
+    PENDING,
+
+    /** Hozir sinxronlanmoqda (jarayon uzilsa keyingi ishga tushishda qayta olinadi) */
+    RUNNING,
+
+    /** Barcha sahifalar kelgan va DB ga yozilgan */
+    DONE,
+
+    /** Kamida bitta sahifa yuklanmadi yoki yozilmadi – keyingi ishga tushishda qayta olinadi */
+    FAILED
+}
@@ -0,0 +1,13 @@
+package org.example.importexportservice.enums;
+
+/**
+ * Bloklovchi JDBC ishi (persist, organization save) qaysi thread'larda bajariladi
+ */
+public enum ExecutionMode {
+
+    /** Schedulers.boundedElastic – platform thread'lar (default) */
+    PLATFORM,
+
+    /** Har vazifaga virtual thread (Java 21+); parallellikni PipelineStage gate'i cheklaydi */
+    VIRTUAL
+}
@@ -0,0 +1,16 @@
+package org.example.importexportservice.enums;
+
+/**
+ * Legal/Individual API so'rovi natijasi (organization_lookups.outcome)
+ */
+public enum LookupOutcome {
+
+    /** Ma'lumot topildi va organizations ga yozildi */
+    FOUND,
+
+    /** Bo'sh javob yoki 4xx – qayta so'rash uzoq muddat ma'nosiz */
+    NOT_FOUND,
+
+    /** 429 / 5xx / timeout – retry'lardan keyin ham o'tmadi, tezroq qayta urinish mumkin */
+    TRANSIENT_ERROR
+}
@@ -0,0 +1,13 @@
+package org.example.importexportservice.enums;
+
+/**
+ * import_checkpoints dagi sahifa holati
+ */
+public enum PageStatus {
+
+    /** Sahifa to'liq kelgan va barcha batchlari DB ga yozilgan */
+    PERSISTED,
+
+    /** Retry'lardan keyin ham yuklanmadi yoki yozilmadi – retry navbatida */
+    FAILED
+}
@@ -0,0 +1,10 @@
+package org.example.importexportservice.enums;
+
+public enum UpdateMode {
+
+    /** Kecha/bugun sahifalarining barcha qatorlari pipeline orqali qayta yoziladi */
+    FULL,
+
+    /** Digest'lari mos kelgan (sana, operatsiya) bo'laklari o'tkazib yuboriladi, farq qilgan hs boblari yoziladi */
+    SNAPSHOT_DIFF
+}
@@ -0,0 +1,13 @@
+package org.example.importexportservice.enums;
+
+public enum WriteMode {
+
+    /** Har bir qator uchun SELECT + save (eski yo'l) */
+    JPA,
+
+    /** Butun batch bitta INSERT ... ON CONFLICT bilan yoziladi */
+    BULK,
+
+    /** Birinchi to'liq import: COPY → staging jadval → bitta MERGE (update uchun BULK ishlatiladi) */
+    COPY
+}
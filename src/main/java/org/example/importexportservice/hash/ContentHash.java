@@ -0,0 +1,205 @@
+package org.example.importexportservice.hash;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+
+/**
+ * trade_data.unique_hash hisoblash.
+ * <p>
+ * Eski formula bilan bayt-ma-bayt bir xil:
+ * {@code sha256Hex(String.join("|", op, hsCode, normalize(goodsValue), countryCode, companyInn, date))},
+ * lekin oraliq String/StringBuilder yaratmaydi – maydonlar thread-local bufferga UTF-8 qilib
+ * yoziladi va qayta ishlatiladigan MessageDigest ga beriladi.
+ */
+public final class ContentHash {
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+    private static final byte SEPARATOR = '|';
+
+    private static final ThreadLocal<State> STATE = ThreadLocal.withInitial(State::new);
+
+    private ContentHash() {
+    }
+
+    public static String sha256Hex(String operationType,
+                                   String hsCode,
+                                   BigDecimal goodsValue,
+                                   String countryCode,
+                                   String companyInn,
+                                   LocalDate declarationDate) {
+
+        State state = STATE.get();
+        state.reset();
+
+        state.putString(operationType);
+        state.put(SEPARATOR);
+        state.putString(hsCode);
+        state.put(SEPARATOR);
+        state.putDecimal(goodsValue);
+        state.put(SEPARATOR);
+        state.putString(countryCode);
+        state.put(SEPARATOR);
+        state.putString(companyInn);
+        state.put(SEPARATOR);
+        state.putDate(declarationDate);
+
+        return state.digestHex();
+    }
+
+    private static final class State {
+
+        private final MessageDigest digest;
+        private byte[] buffer = new byte[256];
+        private final byte[] hex = new byte[64];
+        private final byte[] digits = new byte[20];
+        private int length;
+
+        State() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        void reset() {
+            length = 0;
+        }
+
+        void put(byte b) {
+            if (length == buffer.length) {
+                byte[] grown = new byte[buffer.length << 1];
+                System.arraycopy(buffer, 0, grown, 0, length);
+                buffer = grown;
+            }
+            buffer[length++] = b;
+        }
+
+        void put(byte[] bytes) {
+            for (byte b : bytes) put(b);
+        }
+
+        /**
+         * String.join null elementni "null" deb yozadi
+         */
+        void putString(String s) {
+            if (s == null) {
+                put(NULL);
+                return;
+            }
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c < 0x80) {
+                    put((byte) c);
+                } else if (c < 0x800) {
+                    put((byte) (0xc0 | (c >> 6)));
+                    put((byte) (0x80 | (c & 0x3f)));
+                } else if (Character.isHighSurrogate(c) && i + 1 < s.length()
+                        && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, s.charAt(++i));
+                    put((byte) (0xf0 | (cp >> 18)));
+                    put((byte) (0x80 | ((cp >> 12) & 0x3f)));
+                    put((byte) (0x80 | ((cp >> 6) & 0x3f)));
+                    put((byte) (0x80 | (cp & 0x3f)));
+                } else if (Character.isSurrogate(c)) {
+                    // juftsiz surrogate – String.getBytes(UTF_8) kabi '?'
+                    put((byte) '?');
+                } else {
+                    put((byte) (0xe0 | (c >> 12)));
+                    put((byte) (0x80 | ((c >> 6) & 0x3f)));
+                    put((byte) (0x80 | (c & 0x3f)));
+                }
+            }
+        }
+
+        /**
+         * value.stripTrailingZeros().toPlainString() bilan bir xil natija (null → "0")
+         */
+        void putDecimal(BigDecimal value) {
+            if (value == null || value.signum() == 0) {
+                put((byte) '0');
+                return;
+            }
+            if (value.precision() > 18) {
+                putString(value.stripTrailingZeros().toPlainString());
+                return;
+            }
+
+            long unscaled = value.unscaledValue().longValue();
+            int scale = value.scale();
+
+            while (scale > 0 && unscaled % 10 == 0) {
+                unscaled /= 10;
+                scale--;
+            }
+
+            if (unscaled < 0) {
+                put((byte) '-');
+                unscaled = -unscaled;
+            }
+
+            int n = 0;
+            while (unscaled > 0) {
+                digits[n++] = (byte) ('0' + unscaled % 10);
+                unscaled /= 10;
+            }
+
+            if (scale <= 0) {
+                for (int i = n - 1; i >= 0; i--) put(digits[i]);
+                for (int i = 0; i < -scale; i++) put((byte) '0');
+                return;
+            }
+
+            if (n <= scale) {
+                put((byte) '0');
+                put((byte) '.');
+                for (int i = 0; i < scale - n; i++) put((byte) '0');
+                for (int i = n - 1; i >= 0; i--) put(digits[i]);
+                return;
+            }
+
+            for (int i = n - 1; i >= 0; i--) {
+                put(digits[i]);
+                if (i == scale) put((byte) '.');
+            }
+        }
+
+        /**
+         * LocalDate.toString() (yyyy-MM-dd); null eski kod kabi NPE beradi
+         */
+        void putDate(LocalDate date) {
+            int year = date.getYear();
+            if (year < 0 || year > 9999) {
+                putString(date.toString());
+                return;
+            }
+            put((byte) ('0' + year / 1000));
+            put((byte) ('0' + year / 100 % 10));
+            put((byte) ('0' + year / 10 % 10));
+            put((byte) ('0' + year % 10));
+            put((byte) '-');
+            putTwoDigits(date.getMonthValue());
+            put((byte) '-');
+            putTwoDigits(date.getDayOfMonth());
+        }
+
+        private void putTwoDigits(int v) {
+            put((byte) ('0' + v / 10));
+            put((byte) ('0' + v % 10));
+        }
+
+        String digestHex() {
+            digest.update(buffer, 0, length);
+            byte[] sha = digest.digest();
+            for (int i = 0; i < sha.length; i++) {
+                hex[i << 1] = HEX[(sha[i] >> 4) & 0x0f];
+                hex[(i << 1) + 1] = HEX[sha[i] & 0x0f];
+            }
+            return new String(hex, StandardCharsets.ISO_8859_1);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package org.example.importexportservice.hash;
+
+import java.time.LocalDate;
+
+/**
+ * trade_data identity (company_inn, hs_code, declaration_date, operation_type) uchun
+ * 128-bitlik kriptografik bo'lmagan hash. Batch dedup, JPA writer va hash indeks
+ * "inn|hs|date|op" String yig'ish o'rniga shuni ishlatadi.
+ * <p>
+ * Ikki mustaqil FNV-1a yo'lagi + murmur3 fmix64 bilan yakunlanadi.
+ * Hash jarayonda ishlatiladi, DB ga yozilmaydi.
+ */
+public record IdentityKey(long hi, long lo) {
+
+    private static final long SEED_1 = 0xcbf29ce484222325L;
+    private static final long SEED_2 = 0x84222325cbf29ce4L;
+    private static final long PRIME_1 = 0x100000001b3L;
+    private static final long PRIME_2 = 0x9e3779b97f4a7c15L;
+
+    public static IdentityKey of(String companyInn, String hsCode, LocalDate declarationDate, String operationType) {
+        long h1 = SEED_1;
+        long h2 = SEED_2;
+        int length = 0;
+
+        // har maydondan keyin uzunlik aralashtiriladi: ("ab","c") ≠ ("a","bc")
+        for (int f = 0; f < 4; f++) {
+            String s = switch (f) {
+                case 0 -> companyInn;
+                case 1 -> hsCode;
+                case 3 -> operationType;
+                default -> null;
+            };
+
+            long marker;
+            if (f == 2) {
+                marker = declarationDate == null ? Long.MIN_VALUE : declarationDate.toEpochDay();
+            } else if (s == null) {
+                marker = Long.MIN_VALUE + 1;
+            } else {
+                for (int i = 0; i < s.length(); i++) {
+                    char c = s.charAt(i);
+                    h1 = (h1 ^ c) * PRIME_1;
+                    h2 = (h2 ^ c) * PRIME_2;
+                }
+                marker = s.length();
+                length += s.length();
+            }
+
+            h1 = (h1 ^ marker) * PRIME_1;
+            h2 = (h2 ^ (marker + f)) * PRIME_2;
+        }
+
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        h1 += h2;
+        h2 += h1;
+
+        return new IdentityKey(h1, h2);
+    }
+
+    /**
+     * Faqat 64-bit fingerprint kerak bo'lganda (hash indeks)
+     */
+    public static long fingerprint64(String companyInn, String hsCode, LocalDate declarationDate, String operationType) {
+        return of(companyInn, hsCode, declarationDate, operationType).hi();
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
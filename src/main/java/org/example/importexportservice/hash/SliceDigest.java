@@ -0,0 +1,29 @@
+package org.example.importexportservice.hash;
+
+/**
+ * Qatorlar to'plamining tartibga bog'liq bo'lmagan digest'i: qatorlar soni va har bir unique_hash ning
+ * birinchi ikki 32-bitli so'zi (signed) yig'indisi. Ikki to'plam digest'i qo'shilsa birlashmaning digest'i chiqadi.
+ * <p>
+ * DB tomoni bilan bir xil: {@code sum(('x' || substr(unique_hash, 1, 8))::bit(32)::int)} (bigint, toshmaydi).
+ * Bitta qator o'zgarsa ikkala yig'indi ham tasodifan mos kelishi ehtimoli ~2^-64.
+ */
+public record SliceDigest(long rowCount, long hashSumHi, long hashSumLo) {
+
+    public static final SliceDigest EMPTY = new SliceDigest(0, 0, 0);
+
+    public SliceDigest add(String uniqueHash) {
+        return new SliceDigest(rowCount + 1,
+                hashSumHi + word(uniqueHash, 0),
+                hashSumLo + word(uniqueHash, 8));
+    }
+
+    public SliceDigest plus(SliceDigest other) {
+        return new SliceDigest(rowCount + other.rowCount,
+                hashSumHi + other.hashSumHi,
+                hashSumLo + other.hashSumLo);
+    }
+
+    private static int word(String hex, int from) {
+        return Integer.parseUnsignedInt(hex, from, from + 8, 16);
+    }
+}
@@ -0,0 +1,262 @@
+package org.example.importexportservice.limiter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * AIMD uslubidagi adaptiv concurrency limiter.
+ * <p>
+ * Har bir muvaffaqiyatli so'rovdan keyin latency bazaviy (yuksiz) latency bilan solishtiriladi:
+ * <ul>
+ *     <li>latency tekis → limit +1/limit (taxminan har "aylanishda" +1)</li>
+ *     <li>latency {@code tolerance} martadan oshdi → limit × 0.9</li>
+ *     <li>overload xatosi (429 / 5xx / timeout) → limit × {@code backoffRatio}</li>
+ * </ul>
+ * Limitdan ortiq so'rovlar navbatda kutadi, navbat ham metrikada ko'rinadi.
+ * <p>
+ * Latency – birinchi signalgacha (birinchi element yoki bo'sh complete): stream qilingan javobning
+ * qolgan qismi downstream backpressure tezligida o'qiladi va upstream sog'ligi haqida gapirmaydi.
+ * Ruxsat esa oqim tugaguncha band turadi.
+ */
+@Slf4j
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double LATENCY_BACKOFF_RATIO = 0.9;
+    private static final int BASELINE_DRIFT_SAMPLES = 100;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double backoffRatio;
+    private final Predicate<Throwable> isOverload;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Queue<Permit> waiters = new ConcurrentLinkedQueue<>();
+
+    private final Counter drops;
+
+    private double limit;
+    private double baselineNanos = Double.MAX_VALUE;
+    private int samplesSinceDrift;
+
+    public AdaptiveConcurrencyLimiter(String name,
+                                      int initialLimit,
+                                      int minLimit,
+                                      int maxLimit,
+                                      double tolerance,
+                                      double backoffRatio,
+                                      Predicate<Throwable> isOverload,
+                                      MeterRegistry meterRegistry) {
+        this.name = name;
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.backoffRatio = backoffRatio;
+        this.isOverload = isOverload;
+
+        Gauge.builder("api.limiter.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .tag("client", name)
+                .register(meterRegistry);
+        Gauge.builder("api.limiter.in_flight", inFlight, AtomicInteger::get)
+                .tag("client", name)
+                .register(meterRegistry);
+        Gauge.builder("api.limiter.queue_depth", queued, AtomicInteger::get)
+                .tag("client", name)
+                .register(meterRegistry);
+        this.drops = Counter.builder("api.limiter.drops")
+                .tag("client", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * {@code call} faqat ruxsat olingandan keyin subscribe qilinadi (bitta urinish = bitta ruxsat)
+     */
+    public <T> Flux<T> run(Supplier<Flux<T>> call) {
+        return Flux.usingWhen(
+                acquire(),
+                permit -> {
+                    AtomicBoolean sampled = new AtomicBoolean();
+                    Runnable sample = () -> {
+                        if (sampled.compareAndSet(false, true)) {
+                            onSuccess(System.nanoTime() - permit.grantedAt);
+                        }
+                    };
+                    return Flux.defer(call)
+                            .doOnNext(first -> sample.run())
+                            .doOnComplete(sample)
+                            .doOnError(this::onError);
+                },
+                permit -> Mono.fromRunnable(permit::release));
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getQueueDepth() {
+        return queued.get();
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    void onSuccess(long latencyNanos) {
+        synchronized (this) {
+            if (latencyNanos < baselineNanos) {
+                baselineNanos = latencyNanos;
+            } else if (++samplesSinceDrift >= BASELINE_DRIFT_SAMPLES) {
+                // upstream doimiy sekinlashgan bo'lsa, baza ham sekin yuqoriga siljiydi
+                baselineNanos = baselineNanos * 0.9 + latencyNanos * 0.1;
+                samplesSinceDrift = 0;
+            }
+
+            if (latencyNanos > baselineNanos * tolerance) {
+                limit = Math.max(minLimit, limit * LATENCY_BACKOFF_RATIO);
+            } else {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+        }
+        drain();
+    }
+
+    void onError(Throwable e) {
+        if (!isOverload.test(e)) {
+            return;
+        }
+        drops.increment();
+        int newLimit;
+        synchronized (this) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+            newLimit = (int) limit;
+        }
+        log.warn("🐢 {} limiter backoff → limit={} ({})", name, newLimit, e.getClass().getSimpleName());
+    }
+
+    /**
+     * onCancel ruxsat berilishidan oldin ro'yxatdan o'tadi: bekor qilingan subscriber'ga berilgan
+     * (sink.success tashlab yuborilgan) ruxsat {@link Permit#cancel()} orqali qaytariladi
+     */
+    private Mono<Permit> acquire() {
+        return Mono.create(sink -> {
+            Permit permit = new Permit(sink);
+            sink.onCancel(permit::cancel);
+
+            if (tryAcquire()) {
+                grant(permit);
+                return;
+            }
+
+            queued.incrementAndGet();
+            waiters.add(permit);
+            // qo'shilishdan oldin bekor qilingan bo'lsa navbatda qolib ketmasin
+            if (permit.isCancelled() && waiters.remove(permit)) {
+                queued.decrementAndGet();
+            }
+            // shu orada ruxsat bo'shagan bo'lishi mumkin
+            drain();
+        });
+    }
+
+    private boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Olingan ruxsat permit'ga beriladi; permit allaqachon bekor qilingan bo'lsa ruxsat qaytariladi
+     */
+    private void grant(Permit permit) {
+        if (!permit.state.compareAndSet(Permit.WAITING, Permit.GRANTED)) {
+            inFlight.decrementAndGet();
+            return;
+        }
+        permit.grantedAt = System.nanoTime();
+        permit.sink.success(permit);
+    }
+
+    private void release() {
+        inFlight.decrementAndGet();
+        drain();
+    }
+
+    private void drain() {
+        while (!waiters.isEmpty() && tryAcquire()) {
+            Permit permit = waiters.poll();
+            if (permit == null) {
+                // navbat bo'shab qoldi → ruxsatni qaytaramiz
+                inFlight.decrementAndGet();
+                return;
+            }
+            queued.decrementAndGet();
+            grant(permit);
+        }
+    }
+
+    /**
+     * Bitta acquire holati: WAITING → GRANTED → RELEASED yoki WAITING → CANCELLED.
+     * release idempotent – usingWhen cleanup'i ham, onCancel ham chaqirishi mumkin.
+     */
+    private final class Permit {
+
+        static final int WAITING = 0;
+        static final int GRANTED = 1;
+        static final int CANCELLED = 2;
+        static final int RELEASED = 3;
+
+        private final MonoSink<Permit> sink;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+        private volatile long grantedAt;
+
+        Permit(MonoSink<Permit> sink) {
+            this.sink = sink;
+        }
+
+        boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        void cancel() {
+            if (state.compareAndSet(WAITING, CANCELLED)) {
+                if (waiters.remove(this)) {
+                    queued.decrementAndGet();
+                }
+                return;
+            }
+            // ruxsat berilgan, lekin subscriber uni olmagan bo'lishi mumkin
+            release();
+        }
+
+        void release() {
+            if (state.compareAndSet(GRANTED, RELEASED)) {
+                AdaptiveConcurrencyLimiter.this.release();
+            }
+        }
+    }
+}
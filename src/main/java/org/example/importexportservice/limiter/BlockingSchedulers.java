@@ -0,0 +1,49 @@
+package org.example.importexportservice.limiter;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.importexportservice.enums.ExecutionMode;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Bloklovchi ish uchun scheduler. Loyiha hali Java 17 da kompilyatsiya qilinadi, shuning uchun
+ * virtual-thread executor reflection orqali olinadi; JDK 21 dan past bo'lsa boundedElastic ga qaytiladi.
+ */
+@Slf4j
+public final class BlockingSchedulers {
+
+    private BlockingSchedulers() {
+    }
+
+    public static Scheduler create(ExecutionMode mode, String name) {
+        if (mode == ExecutionMode.VIRTUAL) {
+            ExecutorService executor = newVirtualThreadPerTaskExecutor();
+            if (executor != null) {
+                log.info("🧵 {} virtual thread'larda bajariladi", name);
+                return Schedulers.fromExecutorService(executor, name);
+            }
+            log.warn("⚠️ Virtual thread'lar mavjud emas (Java {}), {} boundedElastic da qoladi",
+                    Runtime.version().feature(), name);
+        }
+        return Schedulers.boundedElastic();
+    }
+
+    public static boolean isVirtualSupported() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        if (!isVirtualSupported()) {
+            return null;
+        }
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.warn("⚠️ Virtual-thread executor yaratilmadi: {}", e.toString());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package org.example.importexportservice.limiter;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Import pipeline'ning bitta bosqichi: qat'iy {@code workers} ta ishchi va ular oldidagi navbat.
+ * <p>
+ * Bosqich global – nechta oqim (import, update, backfill kunlari) ishlatmasin, bir vaqtda
+ * {@code workers} tadan ortiq ish bajarilmaydi. {@code queueCapacity} – bitta oqim shu bosqichga
+ * uzatishi mumkin bo'lgan tugallanmagan ishlar soni; to'lsa oqim yuqoriga backpressure beradi.
+ * Metrikalar: pipeline.stage.active / queued (gauge), pipeline.stage.wait / time (navbatda va ishda o'tgan vaqt).
+ */
+public class PipelineStage {
+
+    private final String name;
+    private final int workers;
+    private final int queueCapacity;
+    private final Scheduler scheduler;
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Queue<Permit> waiters = new ConcurrentLinkedQueue<>();
+
+    private final Timer waitTimer;
+    private final Timer workTimer;
+
+    public PipelineStage(String name, int workers, int queueCapacity, Scheduler scheduler, MeterRegistry meterRegistry) {
+        if (workers < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException(name + ": workers va queue-capacity musbat bo'lishi kerak");
+        }
+        this.name = name;
+        this.workers = workers;
+        this.queueCapacity = queueCapacity;
+        this.scheduler = scheduler;
+
+        Gauge.builder("pipeline.stage.workers", this, PipelineStage::getWorkers)
+                .tag("stage", name)
+                .register(meterRegistry);
+        Gauge.builder("pipeline.stage.active", active, AtomicInteger::get)
+                .tag("stage", name)
+                .register(meterRegistry);
+        Gauge.builder("pipeline.stage.queued", queued, AtomicInteger::get)
+                .tag("stage", name)
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("pipeline.stage.wait")
+                .tag("stage", name)
+                .register(meterRegistry);
+        this.workTimer = Timer.builder("pipeline.stage.time")
+                .tag("stage", name)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * {@code work} bo'sh ishchi topilgach bosqich scheduler'ida bajariladi (bloklovchi bo'lishi mumkin)
+     */
+    public <T> Mono<T> submit(Callable<T> work) {
+        return Mono.usingWhen(
+                acquire(),
+                permit -> Mono.fromCallable(() -> {
+                            long started = System.nanoTime();
+                            waitTimer.record(started - permit.enqueuedAt, TimeUnit.NANOSECONDS);
+                            try {
+                                return work.call();
+                            } finally {
+                                workTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                            }
+                        })
+                        .subscribeOn(scheduler),
+                permit -> Mono.fromRunnable(permit::release));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public int getActive() {
+        return active.get();
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    /**
+     * onCancel ruxsat berilishidan oldin ro'yxatdan o'tadi: bekor qilingan subscriber'ga berilgan
+     * (sink.success tashlab yuborilgan) ishchi {@link Permit#cancel()} orqali qaytariladi
+     */
+    private Mono<Permit> acquire() {
+        return Mono.create(sink -> {
+            Permit permit = new Permit(sink, System.nanoTime());
+            sink.onCancel(permit::cancel);
+
+            if (tryAcquire()) {
+                grant(permit);
+                return;
+            }
+
+            queued.incrementAndGet();
+            waiters.add(permit);
+            // qo'shilishdan oldin bekor qilingan bo'lsa navbatda qolib ketmasin
+            if (permit.isCancelled() && waiters.remove(permit)) {
+                queued.decrementAndGet();
+            }
+            // shu orada ishchi bo'shagan bo'lishi mumkin
+            drain();
+        });
+    }
+
+    private boolean tryAcquire() {
+        while (true) {
+            int current = active.get();
+            if (current >= workers) {
+                return false;
+            }
+            if (active.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Olingan ishchi permit'ga beriladi; permit allaqachon bekor qilingan bo'lsa ishchi qaytariladi
+     */
+    private boolean grant(Permit permit) {
+        if (!permit.state.compareAndSet(Permit.WAITING, Permit.GRANTED)) {
+            active.decrementAndGet();
+            return false;
+        }
+        permit.sink.success(permit);
+        return true;
+    }
+
+    private void release() {
+        active.decrementAndGet();
+        drain();
+    }
+
+    private void drain() {
+        while (!waiters.isEmpty() && tryAcquire()) {
+            Permit permit = waiters.poll();
+            if (permit == null) {
+                // navbat bo'shab qoldi → ishchini qaytaramiz
+                active.decrementAndGet();
+                return;
+            }
+            queued.decrementAndGet();
+            grant(permit);
+        }
+    }
+
+    /**
+     * Bitta acquire holati: WAITING → GRANTED → RELEASED yoki WAITING → CANCELLED.
+     * release idempotent – usingWhen cleanup'i ham, onCancel ham chaqirishi mumkin.
+     */
+    private final class Permit {
+
+        static final int WAITING = 0;
+        static final int GRANTED = 1;
+        static final int CANCELLED = 2;
+        static final int RELEASED = 3;
+
+        private final MonoSink<Permit> sink;
+        private final long enqueuedAt;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        Permit(MonoSink<Permit> sink, long enqueuedAt) {
+            this.sink = sink;
+            this.enqueuedAt = enqueuedAt;
+        }
+
+        boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        void cancel() {
+            if (state.compareAndSet(WAITING, CANCELLED)) {
+                if (waiters.remove(this)) {
+                    queued.decrementAndGet();
+                }
+                return;
+            }
+            // ishchi berilgan, lekin subscriber uni olmagan bo'lishi mumkin
+            release();
+        }
+
+        void release() {
+            if (state.compareAndSet(GRANTED, RELEASED)) {
+                PipelineStage.this.release();
+            }
+        }
+    }
+}
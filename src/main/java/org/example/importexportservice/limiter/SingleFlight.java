@@ -0,0 +1,83 @@
+package org.example.importexportservice.limiter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight: bir kalit uchun bir vaqtda faqat bitta upstream so'rov.
+ * <p>
+ * Shu kalit bo'yicha so'rov ketayotgan paytda kelgan subscriberlar o'sha {@link Mono} ga ulanadi.
+ * So'rov tugashi (yoki hamma subscriber bekor qilishi) bilan yozuv map dan o'chadi – natija cache qilinmaydi.
+ * Map {@code maxInFlight} dan katta bo'lsa yangi kalitlar birlashtirilmay to'g'ridan-to'g'ri chaqiriladi.
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, Mono<V>> inFlight = new ConcurrentHashMap<>();
+    private final int maxInFlight;
+
+    private final Counter calls;
+    private final Counter coalesced;
+
+    public SingleFlight(String name, int maxInFlight, MeterRegistry meterRegistry) {
+        this.maxInFlight = maxInFlight;
+
+        Gauge.builder("api.singleflight.in_flight", inFlight, Map::size)
+                .tag("client", name)
+                .register(meterRegistry);
+        this.calls = Counter.builder("api.singleflight.calls")
+                .tag("client", name)
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("api.singleflight.coalesced")
+                .tag("client", name)
+                .register(meterRegistry);
+    }
+
+    public Mono<V> execute(K key, Supplier<Mono<V>> call) {
+        return Mono.defer(() -> {
+
+            Mono<V> existing = inFlight.get(key);
+            if (existing != null) {
+                coalesced.increment();
+                return existing;
+            }
+
+            if (inFlight.size() >= maxInFlight) {
+                calls.increment();
+                return call.get();
+            }
+
+            @SuppressWarnings("unchecked")
+            Mono<V>[] self = new Mono[1];
+            self[0] = Mono.defer(call)
+                    .doFinally(signal -> inFlight.remove(key, self[0]))
+                    .share();
+
+            Mono<V> winner = inFlight.putIfAbsent(key, self[0]);
+            if (winner != null) {
+                coalesced.increment();
+                return winner;
+            }
+
+            calls.increment();
+            return self[0];
+        });
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    public double getCalls() {
+        return calls.count();
+    }
+
+    public double getCoalesced() {
+        return coalesced.count();
+    }
+}
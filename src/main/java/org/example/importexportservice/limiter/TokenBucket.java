@@ -0,0 +1,105 @@
+package org.example.importexportservice.limiter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Upstream kvotasiga mos token-bucket rate limiter.
+ * <p>
+ * Har so'rov bitta token oladi; token yo'q bo'lsa so'rov bloklanmaydi, balki keyingi token
+ * bo'shaydigan vaqtgacha {@link Mono#delay} bilan kechiktiriladi (rezervatsiya).
+ * 429 + Retry-After kelganda {@link #pause(Duration)} bucket'ni shu muddat oxirigacha (pausedUntil) to'xtatadi –
+ * parallel so'rovlar ham birga kutadi. Bir vaqtda kelgan bir nechta 429 bitta oynani cho'zadi, qo'shib yubormaydi;
+ * pauza davomida tokenlar to'planmaydi, shuning uchun pauzadan keyin ham rate saqlanadi.
+ */
+public class TokenBucket {
+
+    private final double permitsPerNano;
+    private final double capacity;
+    private final LongSupplier nanoClock;
+
+    private final Counter throttled;
+
+    private double tokens;
+    private long lastRefill;
+    private long pausedUntil;
+
+    public TokenBucket(String name, double permitsPerSecond, int burst, MeterRegistry meterRegistry) {
+        this(name, permitsPerSecond, burst, meterRegistry, System::nanoTime);
+    }
+
+    TokenBucket(String name, double permitsPerSecond, int burst, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.permitsPerNano = permitsPerSecond / 1_000_000_000d;
+        this.capacity = Math.max(1, burst);
+        this.nanoClock = nanoClock;
+        this.tokens = capacity;
+        this.lastRefill = nanoClock.getAsLong();
+        this.pausedUntil = lastRefill;
+
+        Gauge.builder("api.ratelimit.tokens", this, TokenBucket::getAvailable)
+                .tag("client", name)
+                .register(meterRegistry);
+        this.throttled = Counter.builder("api.ratelimit.throttled")
+                .tag("client", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Token olinguncha kutadigan Mono (subscribe paytida rezerv qilinadi)
+     */
+    public Mono<Void> acquire() {
+        return Mono.defer(() -> {
+            long waitNanos = reserve();
+            if (waitNanos <= 0) {
+                return Mono.empty();
+            }
+            throttled.increment();
+            return Mono.delay(Duration.ofNanos(waitNanos)).then();
+        });
+    }
+
+    /**
+     * @return token bo'shashigacha qolgan vaqt (0 → darhol)
+     */
+    synchronized long reserve() {
+        refill();
+        tokens -= 1;
+        long debtNanos = tokens >= 0 ? 0 : (long) Math.ceil(-tokens / permitsPerNano);
+        // qarz pauza tugagandan keyin to'lanadi
+        return Math.max(0, pausedUntil - lastRefill) + debtNanos;
+    }
+
+    /**
+     * Upstream "sekinla" dedi: hozirdan {@code duration} o'tguncha token berilmaydi.
+     * Token balansi o'zgarmaydi; bir nechta pauza eng kech tugaydiganiga birlashadi.
+     */
+    public synchronized void pause(Duration duration) {
+        refill();
+        long deadline = lastRefill + duration.toNanos();
+        if (deadline - pausedUntil > 0) {
+            pausedUntil = deadline;
+        }
+    }
+
+    public synchronized double getAvailable() {
+        refill();
+        return tokens;
+    }
+
+    /**
+     * Pauza davomidagi vaqt uchun token qo'shilmaydi
+     */
+    private void refill() {
+        long now = nanoClock.getAsLong();
+        long from = pausedUntil - lastRefill > 0 ? pausedUntil : lastRefill;
+        if (now - from > 0) {
+            tokens = Math.min(capacity, tokens + (now - from) * permitsPerNano);
+        }
+        lastRefill = now;
+    }
+}
@@ -19,7 +19,6 @@ public interface TradeStatisticsMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "uniqueHash", ignore = true)
     @Mapping(target = "tradeType", ignore = true)
-    @Mapping(target = "organization", ignore = true)
     @Mapping(target = "tradeOperationType", expression = "java(mapOpType(dto.getOperationType()))")
     @Mapping(target = "declarationDate", expression = "java(mapDate(dto.getDeclarationDate()))")
     TradeData toEntity(TradeStatisticDTO dto);
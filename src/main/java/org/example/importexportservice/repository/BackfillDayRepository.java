@@ -0,0 +1,105 @@
+package org.example.importexportservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.example.importexportservice.dto.BackfillDay;
+import org.example.importexportservice.enums.DayStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class BackfillDayRepository {
+
+    /**
+     * Oraliqdagi yangi kunlar PENDING bo'lib qo'shiladi, mavjudlarining holati saqlanadi
+     */
+    private static final String ENSURE_SQL = """
+            INSERT INTO backfill_days (req_date, status)
+            SELECT d::date, 'PENDING'
+            FROM generate_series(?::date, ?::date, interval '1 day') AS d
+            ON CONFLICT (req_date) DO NOTHING
+            """;
+
+    private static final String OPEN_SQL = """
+            SELECT req_date
+            FROM backfill_days
+            WHERE req_date BETWEEN ? AND ? AND status <> 'DONE'
+            ORDER BY req_date
+            """;
+
+    private static final String STATUS_SQL = """
+            SELECT req_date, status, attempts, row_count, last_error, started_at, finished_at
+            FROM backfill_days
+            WHERE req_date BETWEEN ? AND ?
+            ORDER BY req_date
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public int ensureDays(LocalDate from, LocalDate to) {
+        return jdbcTemplate.update(ENSURE_SQL, from, to);
+    }
+
+    /**
+     * force: DONE kunlar ham qayta sinxronlanishi uchun PENDING ga qaytariladi
+     */
+    public int reopen(LocalDate from, LocalDate to) {
+        return jdbcTemplate.update("""
+                UPDATE backfill_days
+                SET status = 'PENDING', updated_at = now()
+                WHERE req_date BETWEEN ? AND ? AND status = 'DONE'
+                """, from, to);
+    }
+
+    /**
+     * DONE bo'lmagan kunlar: PENDING, FAILED va oldingi ishga tushishdan uzilib qolgan RUNNING
+     */
+    public List<LocalDate> findOpen(LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(OPEN_SQL, (rs, rowNum) -> rs.getDate(1).toLocalDate(), from, to);
+    }
+
+    public void markRunning(LocalDate reqDate) {
+        jdbcTemplate.update("""
+                UPDATE backfill_days
+                SET status = 'RUNNING', attempts = attempts + 1, last_error = NULL,
+                    started_at = now(), finished_at = NULL, updated_at = now()
+                WHERE req_date = ?
+                """, reqDate);
+    }
+
+    public void markDone(LocalDate reqDate, long rowCount) {
+        jdbcTemplate.update("""
+                UPDATE backfill_days
+                SET status = 'DONE', row_count = ?, finished_at = now(), updated_at = now()
+                WHERE req_date = ?
+                """, rowCount, reqDate);
+    }
+
+    public void markFailed(LocalDate reqDate, String error) {
+        jdbcTemplate.update("""
+                UPDATE backfill_days
+                SET status = 'FAILED', last_error = ?, finished_at = now(), updated_at = now()
+                WHERE req_date = ?
+                """, error, reqDate);
+    }
+
+    public List<BackfillDay> findDays(LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(STATUS_SQL, (rs, rowNum) -> new BackfillDay(
+                rs.getDate(1).toLocalDate(),
+                DayStatus.valueOf(rs.getString(2)),
+                rs.getInt(3),
+                (Long) rs.getObject(4),
+                rs.getString(5),
+                toInstant(rs.getTimestamp(6)),
+                toInstant(rs.getTimestamp(7))), from, to);
+    }
+
+    private static Instant toInstant(Timestamp ts) {
+        return ts == null ? null : ts.toInstant();
+    }
+}
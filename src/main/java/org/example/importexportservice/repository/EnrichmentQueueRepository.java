@@ -0,0 +1,93 @@
+package org.example.importexportservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class EnrichmentQueueRepository {
+
+    /**
+     * organizations da bor INN navbatga tushmaydi (PK bo'yicha NOT EXISTS – butun jadval emas)
+     */
+    private static final String ENQUEUE_SQL = """
+            INSERT INTO pending_enrichment (inn)
+            SELECT DISTINCT i.inn
+            FROM unnest(?::text[]) AS i(inn)
+            WHERE i.inn IS NOT NULL
+              AND NOT EXISTS (SELECT 1 FROM organizations o WHERE o.inn = i.inn)
+            ON CONFLICT (inn) DO NOTHING
+            """;
+
+    /**
+     * Bir martalik: navbat paydo bo'lishidan oldingi trade_data uchun
+     */
+    private static final String RECONCILE_SQL = """
+            INSERT INTO pending_enrichment (inn)
+            SELECT DISTINCT t.company_inn
+            FROM trade_data t
+            WHERE t.company_inn IS NOT NULL
+              AND NOT EXISTS (SELECT 1 FROM organizations o WHERE o.inn = t.company_inn)
+            ON CONFLICT (inn) DO NOTHING
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public int enqueue(Collection<String> inns) {
+
+        if (inns.isEmpty()) {
+            return 0;
+        }
+
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(ENQUEUE_SQL);
+            ps.setArray(1, con.createArrayOf("text", inns.toArray(String[]::new)));
+            return ps;
+        });
+    }
+
+    /**
+     * Eng eski yozuvlar birinchi
+     */
+    public List<String> poll(int limit) {
+        return jdbcTemplate.queryForList(
+                "SELECT inn FROM pending_enrichment ORDER BY enqueued_at LIMIT ?", String.class, limit);
+    }
+
+    public int remove(Collection<String> inns) {
+
+        if (inns.isEmpty()) {
+            return 0;
+        }
+
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement("DELETE FROM pending_enrichment WHERE inn = ANY (?::text[])");
+            ps.setArray(1, con.createArrayOf("text", inns.toArray(String[]::new)));
+            return ps;
+        });
+    }
+
+    public int reconcile() {
+        return jdbcTemplate.update(RECONCILE_SQL);
+    }
+
+    public long size() {
+        Long size = jdbcTemplate.queryForObject("SELECT count(*) FROM pending_enrichment", Long.class);
+        return size == null ? 0 : size;
+    }
+
+    /**
+     * @return eng eski yozuv vaqti, navbat bo'sh bo'lsa null
+     */
+    public Instant oldestEnqueuedAt() {
+        Timestamp oldest = jdbcTemplate.queryForObject("SELECT min(enqueued_at) FROM pending_enrichment", Timestamp.class);
+        return oldest == null ? null : oldest.toInstant();
+    }
+}
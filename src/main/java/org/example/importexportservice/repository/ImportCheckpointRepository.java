@@ -0,0 +1,96 @@
+package org.example.importexportservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.example.importexportservice.dto.ResumePoint;
+import org.example.importexportservice.enums.PageStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.AbstractMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Repository
+@RequiredArgsConstructor
+public class ImportCheckpointRepository {
+
+    /**
+     * Sahifalar parallel yoziladi → har biri bitta upsert.
+     * FAILED → PERSISTED o'tishi mumkin, PERSISTED qaytib FAILED bo'lmaydi.
+     */
+    private static final String MARK_SQL = """
+            INSERT INTO import_checkpoints (req_date, page, status, row_count, total_pages,
+                                            total_elements, attempts, last_error, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, 1, ?, now())
+            ON CONFLICT (req_date, page)
+            DO UPDATE SET status         = EXCLUDED.status,
+                          row_count      = EXCLUDED.row_count,
+                          total_pages    = coalesce(EXCLUDED.total_pages, import_checkpoints.total_pages),
+                          total_elements = coalesce(EXCLUDED.total_elements, import_checkpoints.total_elements),
+                          attempts       = import_checkpoints.attempts + 1,
+                          last_error     = EXCLUDED.last_error,
+                          updated_at     = now()
+            WHERE import_checkpoints.status <> 'PERSISTED'
+            """;
+
+    private static final String RESUME_SQL = """
+            SELECT page, row_count, total_pages, total_elements
+            FROM import_checkpoints
+            WHERE req_date = ? AND status = 'PERSISTED'
+            """;
+
+    private static final String FAILED_SQL = """
+            SELECT req_date, page
+            FROM import_checkpoints
+            WHERE status = 'FAILED' AND attempts < ?
+            ORDER BY req_date, page
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void markPersisted(LocalDate reqDate, int page, int rowCount, Integer totalPages, Integer totalElements) {
+        jdbcTemplate.update(MARK_SQL, reqDate, page, PageStatus.PERSISTED.name(), rowCount,
+                totalPages, totalElements, null);
+    }
+
+    public void markFailed(LocalDate reqDate, int page, String error) {
+        jdbcTemplate.update(MARK_SQL, reqDate, page, PageStatus.FAILED.name(), 0, null, null, error);
+    }
+
+    /**
+     * totalPages/totalElements 1-sahifa checkpointidan olinadi
+     */
+    public ResumePoint resumePoint(LocalDate reqDate) {
+
+        Set<Integer> pages = new HashSet<>();
+        long[] rows = new long[1];
+        Integer[] totals = new Integer[2];
+
+        jdbcTemplate.query(RESUME_SQL, rs -> {
+            int page = rs.getInt(1);
+            pages.add(page);
+            rows[0] += rs.getInt(2);
+            if (page == 1) {
+                totals[0] = (Integer) rs.getObject(3);
+                totals[1] = (Integer) rs.getObject(4);
+            }
+        }, reqDate);
+
+        return new ResumePoint(pages, totals[0], totals[1], rows[0]);
+    }
+
+    /**
+     * Retry navbati: barcha sanalardagi FAILED sahifalar
+     */
+    public List<Map.Entry<LocalDate, Integer>> findRetryable(int maxAttempts) {
+        return jdbcTemplate.query(FAILED_SQL, (rs, rowNum) ->
+                new AbstractMap.SimpleImmutableEntry<>(rs.getDate(1).toLocalDate(), rs.getInt(2)), maxAttempts);
+    }
+
+    public int reset(LocalDate reqDate) {
+        return jdbcTemplate.update("DELETE FROM import_checkpoints WHERE req_date = ?", reqDate);
+    }
+}
@@ -0,0 +1,94 @@
+package org.example.importexportservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.example.importexportservice.entity.Organization;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+@Repository
+@RequiredArgsConstructor
+public class OrganizationBulkRepository {
+
+    /**
+     * Enrich natijalari batch bo'yicha bitta statement bilan yoziladi.
+     * API null qaytargan maydon mavjud qiymatni o'chirmaydi (eski findById + save mantiqi).
+     */
+    private static final String UPSERT_SQL = """
+            INSERT INTO organizations (inn, type, name, short_name, first_name, last_name, region, district)
+            SELECT * FROM unnest(?::text[], ?::text[], ?::text[], ?::text[],
+                                 ?::text[], ?::text[], ?::text[], ?::text[])
+            ON CONFLICT (inn)
+            DO UPDATE SET type       = coalesce(EXCLUDED.type, organizations.type),
+                          name       = coalesce(EXCLUDED.name, organizations.name),
+                          short_name = coalesce(EXCLUDED.short_name, organizations.short_name),
+                          first_name = coalesce(EXCLUDED.first_name, organizations.first_name),
+                          last_name  = coalesce(EXCLUDED.last_name, organizations.last_name),
+                          region     = coalesce(EXCLUDED.region, organizations.region),
+                          district   = coalesce(EXCLUDED.district, organizations.district)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return yozilgan (insert + update) qatorlar soni
+     */
+    public int upsert(Collection<Organization> organizations) {
+
+        if (organizations.isEmpty()) {
+            return 0;
+        }
+
+        // ON CONFLICT bitta statementda bir qatorni ikki marta yangilay olmaydi
+        Map<String, Organization> byInn = new LinkedHashMap<>();
+        for (Organization org : organizations) {
+            byInn.put(org.getInn(), org);
+        }
+
+        return jdbcTemplate.update(con -> prepareUpsert(con, byInn.values()));
+    }
+
+    private PreparedStatement prepareUpsert(Connection con, Collection<Organization> rows) throws SQLException {
+
+        int size = rows.size();
+        String[] inns = new String[size];
+        String[] types = new String[size];
+        String[] names = new String[size];
+        String[] shortNames = new String[size];
+        String[] firstNames = new String[size];
+        String[] lastNames = new String[size];
+        String[] regions = new String[size];
+        String[] districts = new String[size];
+
+        int i = 0;
+        for (Organization row : rows) {
+            inns[i] = row.getInn();
+            types[i] = Objects.toString(row.getType(), null);
+            names[i] = row.getName();
+            shortNames[i] = row.getShortName();
+            firstNames[i] = row.getFirstName();
+            lastNames[i] = row.getLastName();
+            regions[i] = row.getRegion();
+            districts[i] = row.getDistrict();
+            i++;
+        }
+
+        PreparedStatement ps = con.prepareStatement(UPSERT_SQL);
+        ps.setArray(1, con.createArrayOf("text", inns));
+        ps.setArray(2, con.createArrayOf("text", types));
+        ps.setArray(3, con.createArrayOf("text", names));
+        ps.setArray(4, con.createArrayOf("text", shortNames));
+        ps.setArray(5, con.createArrayOf("text", firstNames));
+        ps.setArray(6, con.createArrayOf("text", lastNames));
+        ps.setArray(7, con.createArrayOf("text", regions));
+        ps.setArray(8, con.createArrayOf("text", districts));
+        return ps;
+    }
+}
@@ -0,0 +1,126 @@
+package org.example.importexportservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.example.importexportservice.dto.LookupResult;
+import org.example.importexportservice.enums.LookupOutcome;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+@Repository
+@RequiredArgsConstructor
+public class OrganizationLookupRepository {
+
+    private static final String RECORD_SQL = """
+            INSERT INTO organization_lookups (inn, outcome, attempts, checked_at, next_check_at, last_error)
+            SELECT inn, outcome, 1, now(), now() + make_interval(secs => ttl), last_error
+            FROM unnest(?::text[], ?::text[], ?::bigint[], ?::text[]) AS t(inn, outcome, ttl, last_error)
+            ON CONFLICT (inn)
+            DO UPDATE SET outcome       = EXCLUDED.outcome,
+                          attempts      = CASE WHEN EXCLUDED.outcome = 'FOUND' THEN 1
+                                               ELSE organization_lookups.attempts + 1 END,
+                          checked_at    = EXCLUDED.checked_at,
+                          next_check_at = EXCLUDED.next_check_at,
+                          last_error    = EXCLUDED.last_error
+            """;
+
+    private static final String SUPPRESSED_SQL = """
+            SELECT inn, next_check_at
+            FROM organization_lookups
+            WHERE inn = ANY (?::text[]) AND next_check_at > now()
+            """;
+
+    private static final String DUE_FOR_REFRESH_SQL = """
+            SELECT inn
+            FROM organization_lookups
+            WHERE next_check_at <= now()
+            ORDER BY next_check_at
+            LIMIT ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return hali tekshiruv vaqti kelmagan INN lar → next_check_at
+     */
+    public Map<String, Instant> findSuppressed(Collection<String> inns) {
+
+        Map<String, Instant> suppressed = new HashMap<>();
+        if (inns.isEmpty()) {
+            return suppressed;
+        }
+
+        jdbcTemplate.query(
+                con -> {
+                    PreparedStatement ps = con.prepareStatement(SUPPRESSED_SQL);
+                    ps.setArray(1, con.createArrayOf("text", inns.toArray(String[]::new)));
+                    return ps;
+                },
+                rs -> {
+                    suppressed.put(rs.getString(1), rs.getTimestamp(2).toInstant());
+                });
+        return suppressed;
+    }
+
+    /**
+     * TTL muddati o'tgan natijalar: FOUND → ma'lumot yangilanadi, NOT_FOUND/TRANSIENT_ERROR → qayta urinish
+     */
+    public List<String> findDueForRefresh(int limit) {
+        return jdbcTemplate.queryForList(DUE_FOR_REFRESH_SQL, String.class, limit);
+    }
+
+    /**
+     * @param ttl har natija turi uchun keyingi tekshiruvgacha vaqt
+     */
+    public int record(Collection<LookupResult> results, Function<LookupOutcome, Duration> ttl) {
+
+        if (results.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, LookupResult> byInn = new LinkedHashMap<>();
+        for (LookupResult result : results) {
+            byInn.put(result.inn(), result);
+        }
+
+        return jdbcTemplate.update(con -> prepareRecord(con, byInn.values(), ttl));
+    }
+
+    private PreparedStatement prepareRecord(Connection con,
+                                            Collection<LookupResult> rows,
+                                            Function<LookupOutcome, Duration> ttl) throws SQLException {
+
+        int size = rows.size();
+        String[] inns = new String[size];
+        String[] outcomes = new String[size];
+        Long[] ttlSeconds = new Long[size];
+        String[] errors = new String[size];
+
+        int i = 0;
+        for (LookupResult row : rows) {
+            inns[i] = row.inn();
+            outcomes[i] = row.outcome().name();
+            ttlSeconds[i] = ttl.apply(row.outcome()).toSeconds();
+            errors[i] = row.error();
+            i++;
+        }
+
+        PreparedStatement ps = con.prepareStatement(RECORD_SQL);
+        ps.setArray(1, con.createArrayOf("text", inns));
+        ps.setArray(2, con.createArrayOf("text", outcomes));
+        ps.setArray(3, con.createArrayOf("bigint", ttlSeconds));
+        ps.setArray(4, con.createArrayOf("text", errors));
+        return ps;
+    }
+}
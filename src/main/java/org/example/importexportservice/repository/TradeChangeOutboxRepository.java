@@ -0,0 +1,131 @@
+package org.example.importexportservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.example.importexportservice.dto.TradeChangeEvent;
+import org.example.importexportservice.dto.TradeValueChange;
+import org.example.importexportservice.enums.ChangeOp;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+@Repository
+@RequiredArgsConstructor
+public class TradeChangeOutboxRepository {
+
+    /**
+     * Batchdagi barcha hodisalar bitta statement bilan, seq massiv tartibida ajratiladi
+     */
+    private static final String APPEND_SQL = """
+            INSERT INTO trade_change_outbox (op, operation_type, company_inn, hs_code, declaration_date,
+                                             old_goods_value, new_goods_value, unique_hash)
+            SELECT * FROM unnest(?::text[], ?::text[], ?::text[], ?::text[], ?::date[],
+                                 ?::numeric[], ?::numeric[], ?::text[])
+            """;
+
+    /**
+     * Kursor (txid, seq): xid upsert'da, seq undan keyin outbox insert'ida olinadi, shuning uchun
+     * keyinroq boshlangan tranzaksiya kichikroq seq bilan hali ochiq turishi mumkin – seq bo'yicha
+     * sahifalash uni o'tkazib yuborardi. Faqat xmin dan oldingi tranzaksiyalar qaytariladi; keyinroq
+     * ko'rinadigan har qanday hodisaning txid'i xmin dan kichik emas, ya'ni kursordan orqada qolmaydi.
+     */
+    private static final String AFTER_SQL = """
+            SELECT txid::text::bigint AS txid, seq, op, operation_type, company_inn, hs_code, declaration_date,
+                   old_goods_value, new_goods_value, unique_hash, created_at
+            FROM trade_change_outbox
+            WHERE (txid, seq) > (?::text::xid8, ?)
+              AND txid < pg_snapshot_xmin(pg_current_snapshot())
+            ORDER BY txid, seq
+            LIMIT ?
+            """;
+
+    private static final RowMapper<TradeChangeEvent> ROW_MAPPER = (rs, rowNum) -> {
+        Date date = rs.getDate("declaration_date");
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        return new TradeChangeEvent(
+                rs.getLong("txid"),
+                rs.getLong("seq"),
+                ChangeOp.valueOf(rs.getString("op")),
+                rs.getString("operation_type"),
+                rs.getString("company_inn"),
+                rs.getString("hs_code"),
+                date == null ? null : date.toLocalDate(),
+                rs.getBigDecimal("old_goods_value"),
+                rs.getBigDecimal("new_goods_value"),
+                rs.getString("unique_hash"),
+                createdAt == null ? null : createdAt.toInstant());
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Chaqiruvchi tranzaksiyasida yoziladi – trade_data yozuvi bilan birga commit/rollback
+     */
+    public int append(Collection<TradeValueChange> changes) {
+
+        if (changes.isEmpty()) {
+            return 0;
+        }
+
+        int size = changes.size();
+        String[] ops = new String[size];
+        String[] operationTypes = new String[size];
+        String[] inns = new String[size];
+        String[] hsCodes = new String[size];
+        String[] dates = new String[size];
+        String[] oldValues = new String[size];
+        String[] newValues = new String[size];
+        String[] hashes = new String[size];
+
+        int i = 0;
+        for (TradeValueChange change : changes) {
+            ops[i] = (change.inserted() ? ChangeOp.INSERT : ChangeOp.UPDATE).name();
+            operationTypes[i] = change.operationType();
+            inns[i] = change.companyInn();
+            hsCodes[i] = change.hsCode();
+            dates[i] = Objects.toString(change.declarationDate(), null);
+            oldValues[i] = plain(change.oldGoodsValue());
+            newValues[i] = plain(change.newGoodsValue());
+            hashes[i] = change.uniqueHash();
+            i++;
+        }
+
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(APPEND_SQL);
+            ps.setArray(1, con.createArrayOf("text", ops));
+            ps.setArray(2, con.createArrayOf("text", operationTypes));
+            ps.setArray(3, con.createArrayOf("text", inns));
+            ps.setArray(4, con.createArrayOf("text", hsCodes));
+            ps.setArray(5, con.createArrayOf("text", dates));
+            ps.setArray(6, con.createArrayOf("text", oldValues));
+            ps.setArray(7, con.createArrayOf("text", newValues));
+            ps.setArray(8, con.createArrayOf("text", hashes));
+            return ps;
+        });
+    }
+
+    /**
+     * Keyset: (txid, seq) > (afterTxid, afterSeq), idx_trade_change_outbox_txid_seq dan o'qiladi
+     */
+    public List<TradeChangeEvent> findAfter(long afterTxid, long afterSeq, int limit) {
+        return jdbcTemplate.query(AFTER_SQL, ROW_MAPPER, afterTxid, afterSeq, limit);
+    }
+
+    public int purgeOlderThan(Duration retention) {
+        return jdbcTemplate.update(
+                "DELETE FROM trade_change_outbox WHERE created_at < now() - make_interval(secs => ?)",
+                retention.toSeconds());
+    }
+
+    private static String plain(BigDecimal value) {
+        return value == null ? null : value.toPlainString();
+    }
+}
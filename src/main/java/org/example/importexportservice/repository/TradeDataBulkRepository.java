@@ -0,0 +1,210 @@
+package org.example.importexportservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.example.importexportservice.dto.BatchWriteResult;
+import org.example.importexportservice.dto.TradeValueChange;
+import org.example.importexportservice.entity.TradeData;
+import org.example.importexportservice.hash.IdentityKey;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+@Repository
+@RequiredArgsConstructor
+public class TradeDataBulkRepository {
+
+    /**
+     * Batchdagi mavjud qatorlarni lock qilib o'qiydi – rollup/CDC uchun eski qiymatlar shu yerdan olinadi.
+     * Upsert statementidagi CTE statement boshidagi snapshotni ko'rardi: shu orada boshqa tranzaksiya
+     * commit qilgan insert/update'ni ON CONFLICT yangilar, eski qiymat esa eskirgan (yoki umuman yo'q) bo'lardi.
+     * FOR UPDATE kutgandan keyin qatorning oxirgi versiyasini qaytaradi va tranzaksiya oxirigacha ushlab turadi.
+     * ORDER BY → parallel writer'lar qatorlarni bir tartibda lock qiladi (deadlock yo'q).
+     * Sana oralig'i (initplan) trade_data partitionlarini runtime'da qisqartiradi.
+     */
+    private static final String LOCK_SQL = """
+            WITH src AS (
+                SELECT * FROM unnest(?::text[], ?::text[], ?::text[], ?::date[])
+                       AS s(operation_type, company_inn, hs_code, declaration_date)
+            )
+            SELECT t.operation_type, t.company_inn, t.hs_code, t.declaration_date, t.goods_value, t.country_code
+            FROM trade_data t
+            JOIN src s ON t.company_inn = s.company_inn
+                      AND t.hs_code = s.hs_code
+                      AND t.declaration_date = s.declaration_date
+                      AND t.operation_type = s.operation_type
+            WHERE t.declaration_date BETWEEN (SELECT min(declaration_date) FROM src)
+                                         AND (SELECT max(declaration_date) FROM src)
+            ORDER BY t.company_inn, t.hs_code, t.declaration_date, t.operation_type
+            FOR UPDATE OF t
+            """;
+
+    /**
+     * Butun batch bitta statement bilan yoziladi.
+     * Hash o'zgarmagan qatorlar WHERE sharti orqali tegilmaydi (skip),
+     * RETURNING faqat insert/update bo'lgan qatorlarni qaytaradi.
+     * xmax = 0 → qator shu statementda yangi qo'shilgan.
+     */
+    private static final String UPSERT_SQL = """
+            INSERT INTO trade_data (operation_type, trade_type, company_inn, hs_code,
+                                    goods_value, country_code, declaration_date, unique_hash)
+            SELECT * FROM unnest(?::text[], ?::text[], ?::text[], ?::text[],
+                                 ?::numeric[], ?::text[], ?::date[], ?::text[])
+            ON CONFLICT (company_inn, hs_code, declaration_date, operation_type)
+            DO UPDATE SET goods_value  = EXCLUDED.goods_value,
+                          country_code = EXCLUDED.country_code,
+                          unique_hash  = EXCLUDED.unique_hash
+            WHERE trade_data.unique_hash <> EXCLUDED.unique_hash
+            RETURNING (xmax = 0) AS inserted, operation_type, company_inn, hs_code, declaration_date,
+                      country_code, goods_value, unique_hash
+            """;
+
+    private record Existing(String countryCode, BigDecimal goodsValue) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Chaqiruvchi tranzaksiyasida bo'lishi kerak: lock upsert, rollup va outbox yozilguncha turadi.
+     *
+     * @param rows identity bo'yicha takrorlanmagan, uniqueHash hisoblangan qatorlar
+     */
+    public BatchWriteResult upsert(Collection<TradeData> rows) {
+
+        if (rows.isEmpty()) {
+            return BatchWriteResult.empty();
+        }
+
+        Map<IdentityKey, Existing> existing = lockExisting(rows);
+
+        int[] counts = new int[2];
+        List<TradeValueChange> changes = new ArrayList<>();
+
+        jdbcTemplate.query(
+                con -> prepareUpsert(con, rows),
+                rs -> {
+                    boolean inserted = rs.getBoolean(1);
+                    Date date = rs.getDate(5);
+                    String operationType = rs.getString(2);
+                    String companyInn = rs.getString(3);
+                    String hsCode = rs.getString(4);
+                    LocalDate declarationDate = date == null ? null : date.toLocalDate();
+
+                    Existing old = null;
+                    if (inserted) {
+                        counts[0]++;
+                    } else {
+                        counts[1]++;
+                        old = existing.get(IdentityKey.of(companyInn, hsCode, declarationDate, operationType));
+                        if (old == null) {
+                            // lockdan keyin boshqa tranzaksiya shu kalitni insert qilgan – eski qiymat noma'lum,
+                            // noto'g'ri delta rollup'ni buzgandan ko'ra batch rollback bo'lsin
+                            throw new ConcurrencyFailureException("trade_data qatori parallel insert qilingan: "
+                                    + companyInn + "/" + hsCode + "/" + declarationDate + "/" + operationType);
+                        }
+                    }
+
+                    changes.add(new TradeValueChange(
+                            operationType,
+                            companyInn,
+                            hsCode,
+                            declarationDate,
+                            old == null ? null : old.countryCode(),
+                            old == null ? null : old.goodsValue(),
+                            rs.getString(6),
+                            rs.getBigDecimal(7),
+                            rs.getString(8),
+                            inserted));
+                });
+
+        int inserted = counts[0];
+        int updated = counts[1];
+        return new BatchWriteResult(inserted, updated, rows.size() - inserted - updated, changes);
+    }
+
+    private Map<IdentityKey, Existing> lockExisting(Collection<TradeData> rows) {
+
+        int size = rows.size();
+        String[] operationTypes = new String[size];
+        String[] inns = new String[size];
+        String[] hsCodes = new String[size];
+        String[] declarationDates = new String[size];
+
+        int i = 0;
+        for (TradeData row : rows) {
+            operationTypes[i] = Objects.toString(row.getTradeOperationType(), null);
+            inns[i] = row.getCompanyInn();
+            hsCodes[i] = row.getHsCode();
+            declarationDates[i] = Objects.toString(row.getDeclarationDate(), null);
+            i++;
+        }
+
+        Map<IdentityKey, Existing> existing = new HashMap<>();
+        jdbcTemplate.query(
+                con -> {
+                    PreparedStatement ps = con.prepareStatement(LOCK_SQL);
+                    ps.setArray(1, con.createArrayOf("text", operationTypes));
+                    ps.setArray(2, con.createArrayOf("text", inns));
+                    ps.setArray(3, con.createArrayOf("text", hsCodes));
+                    ps.setArray(4, con.createArrayOf("text", declarationDates));
+                    return ps;
+                },
+                rs -> {
+                    Date date = rs.getDate(4);
+                    existing.put(
+                            IdentityKey.of(rs.getString(2), rs.getString(3),
+                                    date == null ? null : date.toLocalDate(), rs.getString(1)),
+                            new Existing(rs.getString(6), rs.getBigDecimal(5)));
+                });
+        return existing;
+    }
+
+    private PreparedStatement prepareUpsert(Connection con, Collection<TradeData> rows) throws SQLException {
+
+        int size = rows.size();
+        String[] operationTypes = new String[size];
+        String[] tradeTypes = new String[size];
+        String[] inns = new String[size];
+        String[] hsCodes = new String[size];
+        String[] goodsValues = new String[size];
+        String[] countryCodes = new String[size];
+        String[] declarationDates = new String[size];
+        String[] hashes = new String[size];
+
+        int i = 0;
+        for (TradeData row : rows) {
+            operationTypes[i] = Objects.toString(row.getTradeOperationType(), null);
+            tradeTypes[i] = Objects.toString(row.getTradeType(), null);
+            inns[i] = row.getCompanyInn();
+            hsCodes[i] = row.getHsCode();
+            goodsValues[i] = row.getGoodsValue() == null ? null : row.getGoodsValue().toPlainString();
+            countryCodes[i] = row.getCountryCode();
+            declarationDates[i] = Objects.toString(row.getDeclarationDate(), null);
+            hashes[i] = row.getUniqueHash();
+            i++;
+        }
+
+        PreparedStatement ps = con.prepareStatement(UPSERT_SQL);
+        ps.setArray(1, con.createArrayOf("text", operationTypes));
+        ps.setArray(2, con.createArrayOf("text", tradeTypes));
+        ps.setArray(3, con.createArrayOf("text", inns));
+        ps.setArray(4, con.createArrayOf("text", hsCodes));
+        ps.setArray(5, con.createArrayOf("text", goodsValues));
+        ps.setArray(6, con.createArrayOf("text", countryCodes));
+        ps.setArray(7, con.createArrayOf("text", declarationDates));
+        ps.setArray(8, con.createArrayOf("text", hashes));
+        return ps;
+    }
+}
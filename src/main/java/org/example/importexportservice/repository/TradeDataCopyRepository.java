@@ -0,0 +1,155 @@
+package org.example.importexportservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.example.importexportservice.dto.BatchWriteResult;
+import org.example.importexportservice.entity.TradeData;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Collection;
+
+@Repository
+@RequiredArgsConstructor
+public class TradeDataCopyRepository {
+
+    private static final String COPY_SQL = """
+            COPY trade_data_staging (operation_type, trade_type, company_inn, hs_code,
+                                     goods_value, country_code, declaration_date, unique_hash)
+            FROM STDIN WITH (FORMAT csv)
+            """;
+
+    /**
+     * Staging → trade_data bitta statement.
+     * Bir xil identity bir necha marta kelgan bo'lsa oxirgisi (seq DESC) olinadi,
+     * hash o'zgarmagan qatorlar tegilmaydi.
+     * %s – CDC yoqilgan bo'lsa {@link #OUTBOX_CTE}, aks holda bo'sh.
+     */
+    private static final String MERGE_SQL = """
+            WITH src AS (
+                SELECT DISTINCT ON (company_inn, hs_code, declaration_date, operation_type)
+                       operation_type, trade_type, company_inn, hs_code,
+                       goods_value, country_code, declaration_date, unique_hash
+                FROM trade_data_staging
+                ORDER BY company_inn, hs_code, declaration_date, operation_type, seq DESC
+            ),
+            merged AS (
+                INSERT INTO trade_data (operation_type, trade_type, company_inn, hs_code,
+                                        goods_value, country_code, declaration_date, unique_hash)
+                SELECT * FROM src
+                ON CONFLICT (company_inn, hs_code, declaration_date, operation_type)
+                DO UPDATE SET goods_value  = EXCLUDED.goods_value,
+                              country_code = EXCLUDED.country_code,
+                              unique_hash  = EXCLUDED.unique_hash
+                WHERE trade_data.unique_hash <> EXCLUDED.unique_hash
+                RETURNING (xmax = 0) AS inserted, operation_type, company_inn, hs_code, declaration_date,
+                          goods_value, unique_hash
+            )%s
+            SELECT (SELECT count(*) FROM src)                  AS total,
+                   count(*) FILTER (WHERE inserted)            AS inserted,
+                   count(*) FILTER (WHERE NOT inserted)        AS updated
+            FROM merged
+            """;
+
+    /**
+     * Outbox hodisalari MERGE bilan bir statementda (bitta tranzaksiya).
+     * CTE ichidagi trade_data statement boshidagi snapshotni ko'radi → update qilingan qatorning eski qiymati.
+     */
+    private static final String OUTBOX_CTE = """
+            ,
+            outbox AS (
+                INSERT INTO trade_change_outbox (op, operation_type, company_inn, hs_code, declaration_date,
+                                                 old_goods_value, new_goods_value, unique_hash)
+                SELECT CASE WHEN m.inserted THEN 'INSERT' ELSE 'UPDATE' END,
+                       m.operation_type, m.company_inn, m.hs_code, m.declaration_date,
+                       t.goods_value, m.goods_value, m.unique_hash
+                FROM merged m
+                LEFT JOIN trade_data t ON NOT m.inserted
+                                      AND t.company_inn = m.company_inn
+                                      AND t.hs_code = m.hs_code
+                                      AND t.declaration_date = m.declaration_date
+                                      AND t.operation_type = m.operation_type
+            )""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void truncateStaging() {
+        jdbcTemplate.execute("TRUNCATE trade_data_staging");
+    }
+
+    /**
+     * @param rows uniqueHash hisoblangan qatorlar
+     * @return staging ga yozilgan qatorlar soni
+     */
+    public long copyToStaging(Collection<TradeData> rows) {
+
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        String csv = toCsv(rows);
+
+        Long copied = jdbcTemplate.execute((ConnectionCallback<Long>) con -> {
+            try {
+                return con.unwrap(PGConnection.class)
+                        .getCopyAPI()
+                        .copyIn(COPY_SQL, new StringReader(csv));
+            } catch (IOException e) {
+                throw new IllegalStateException("COPY staging xatosi", e);
+            }
+        });
+
+        return copied == null ? 0 : copied;
+    }
+
+    /**
+     * @param captureChanges insert/update bo'lgan qatorlar trade_change_outbox ga ham yoziladi
+     */
+    public BatchWriteResult mergeStaging(boolean captureChanges) {
+        String sql = MERGE_SQL.formatted(captureChanges ? OUTBOX_CTE : "");
+        return jdbcTemplate.queryForObject(sql, (rs, rowNum) -> {
+            int total = rs.getInt("total");
+            int inserted = rs.getInt("inserted");
+            int updated = rs.getInt("updated");
+            return new BatchWriteResult(inserted, updated, total - inserted - updated);
+        });
+    }
+
+    private String toCsv(Collection<TradeData> rows) {
+
+        StringBuilder sb = new StringBuilder(rows.size() * 160);
+
+        for (TradeData row : rows) {
+            appendField(sb, row.getTradeOperationType() == null ? null : row.getTradeOperationType().name()).append(',');
+            appendField(sb, row.getTradeType() == null ? null : row.getTradeType().name()).append(',');
+            appendField(sb, row.getCompanyInn()).append(',');
+            appendField(sb, row.getHsCode()).append(',');
+            appendField(sb, row.getGoodsValue() == null ? null : row.getGoodsValue().toPlainString()).append(',');
+            appendField(sb, row.getCountryCode()).append(',');
+            appendField(sb, row.getDeclarationDate() == null ? null : row.getDeclarationDate().toString()).append(',');
+            appendField(sb, row.getUniqueHash()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * CSV: NULL → bo'sh (qo'shtirnoqsiz), qiymat → har doim qo'shtirnoqda
+     */
+    private StringBuilder appendField(StringBuilder sb, String value) {
+
+        if (value == null) {
+            return sb;
+        }
+
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') sb.append('"');
+            sb.append(c);
+        }
+        return sb.append('"');
+    }
+}
@@ -0,0 +1,79 @@
+package org.example.importexportservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class TradeDataPartitionRepository {
+
+    private static final String PARTITIONS_SQL = """
+            SELECT c.relname
+            FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = 'trade_data'::regclass
+            ORDER BY c.relname
+            """;
+
+    private static final String ARCHIVED_SQL = """
+            SELECT c.relname
+            FROM pg_class c
+            JOIN pg_namespace n ON n.oid = c.relnamespace
+            WHERE n.nspname = ? AND c.relkind IN ('r', 'p') AND c.relname LIKE 'trade\\_data\\_%'
+            ORDER BY c.relname
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public boolean isPartitioned() {
+        String kind = jdbcTemplate.queryForObject(
+                "SELECT relkind::text FROM pg_class WHERE oid = to_regclass('trade_data')", String.class);
+        return "p".equals(kind);
+    }
+
+    /**
+     * @return true → yangi partition yaratildi (default dagi shu oy qatorlari unga ko'chirildi)
+     */
+    public boolean ensurePartition(LocalDate month) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT trade_data_ensure_partition(?)", Boolean.class, Date.valueOf(month)));
+    }
+
+    /**
+     * Default partitionga tushgan oylar (oldindan yaratilmagan tarixiy sanalar)
+     */
+    public List<LocalDate> findDefaultPartitionMonths() {
+        return jdbcTemplate.queryForList(
+                "SELECT DISTINCT date_trunc('month', declaration_date)::date FROM trade_data_default",
+                Date.class).stream().map(Date::toLocalDate).toList();
+    }
+
+    public List<String> findPartitionNames() {
+        return jdbcTemplate.queryForList(PARTITIONS_SQL, String.class);
+    }
+
+    /**
+     * Archive sxemasiga o'tgan partitionlar – trade_data_ensure_partition ularni search_path da ko'rmaydi
+     */
+    public List<String> findArchivedPartitionNames(String archiveSchema) {
+        return jdbcTemplate.queryForList(ARCHIVED_SQL, String.class, archiveSchema);
+    }
+
+    /**
+     * Partition trade_data dan ajratiladi va archive sxemasiga o'tadi (ma'lumot o'chmaydi)
+     */
+    public void detachToArchive(String partition, String archiveSchema) {
+        jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS " + quote(archiveSchema));
+        jdbcTemplate.execute("ALTER TABLE trade_data DETACH PARTITION " + quote(partition));
+        jdbcTemplate.execute("ALTER TABLE " + quote(partition) + " SET SCHEMA " + quote(archiveSchema));
+    }
+
+    private static String quote(String identifier) {
+        return '"' + identifier.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,159 @@
+package org.example.importexportservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.importexportservice.dto.TradeDataQuery;
+import org.example.importexportservice.dto.TradeDataView;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SynchronousSink;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class TradeDataQueryRepository {
+
+    private static final String SELECT = """
+            SELECT id, operation_type, trade_type, company_inn, hs_code,
+                   goods_value, country_code, declaration_date
+            FROM trade_data
+            """;
+
+    private static final RowMapper<TradeDataView> ROW_MAPPER = (rs, rowNum) -> map(rs);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+
+    @Value("${app.api.read.export-fetch-size:1000}")
+    private int exportFetchSize;
+
+    /**
+     * Keyset sahifa: OFFSET yo'q, (declaration_date, id) indeksidan kursordan keyin o'qiladi
+     */
+    public List<TradeDataView> findPage(TradeDataQuery query, int limit) {
+        List<Object> params = new ArrayList<>();
+        String sql = buildSql(query, params) + " LIMIT ?";
+        params.add(limit);
+        return jdbcTemplate.query(sql, ROW_MAPPER, params.toArray());
+    }
+
+    /**
+     * Server-side cursor ustidan oqim: qator faqat subscriber so'raganda o'qiladi,
+     * xotirada bir vaqtda ko'pi bilan bitta fetch (exportFetchSize qator) turadi.
+     * Ulanish subscribe qilgan boundedElastic worker'ga bog'langan bo'lishi kerak.
+     */
+    public Flux<TradeDataView> stream(TradeDataQuery query) {
+        return Flux.using(
+                () -> openCursor(query),
+                cursor -> Flux.generate((SynchronousSink<TradeDataView> sink) -> {
+                    try {
+                        if (cursor.resultSet().next()) {
+                            sink.next(map(cursor.resultSet()));
+                        } else {
+                            sink.complete();
+                        }
+                    } catch (SQLException e) {
+                        sink.error(e);
+                    }
+                }),
+                Cursor::close);
+    }
+
+    private Cursor openCursor(TradeDataQuery query) throws SQLException {
+
+        List<Object> params = new ArrayList<>();
+        String sql = buildSql(query, params);
+
+        Connection connection = dataSource.getConnection();
+        try {
+            // PostgreSQL faqat autocommit o'chiq bo'lganda fetchSize bo'yicha cursor ochadi
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setFetchSize(exportFetchSize);
+            for (int i = 0; i < params.size(); i++) {
+                statement.setObject(i + 1, params.get(i));
+            }
+            return new Cursor(connection, statement, statement.executeQuery());
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Faqat berilgan filtrlar WHERE ga qo'shiladi – "? IS NULL OR" shablonidagi umumiy plan bo'lmaydi
+     */
+    private String buildSql(TradeDataQuery query, List<Object> params) {
+
+        StringBuilder sql = new StringBuilder(SELECT).append(" WHERE 1 = 1");
+
+        if (query.companyInn() != null) {
+            sql.append(" AND company_inn = ?");
+            params.add(query.companyInn());
+        }
+        if (query.hsPrefix() != null) {
+            sql.append(" AND hs_code LIKE ?");
+            params.add(escapeLike(query.hsPrefix()) + "%");
+        }
+        if (query.from() != null) {
+            sql.append(" AND declaration_date >= ?");
+            params.add(Date.valueOf(query.from()));
+        }
+        if (query.to() != null) {
+            sql.append(" AND declaration_date <= ?");
+            params.add(Date.valueOf(query.to()));
+        }
+        if (query.operationType() != null) {
+            sql.append(" AND operation_type = ?");
+            params.add(query.operationType().name());
+        }
+        if (query.afterDate() != null && query.afterId() != null) {
+            sql.append(" AND (declaration_date, id) > (?, ?)");
+            params.add(Date.valueOf(query.afterDate()));
+            params.add(query.afterId());
+        }
+
+        return sql.append(" ORDER BY declaration_date, id").toString();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static TradeDataView map(ResultSet rs) throws SQLException {
+        Date date = rs.getDate(8);
+        return new TradeDataView(
+                rs.getLong(1),
+                rs.getString(2),
+                rs.getString(3),
+                rs.getString(4),
+                rs.getString(5),
+                rs.getBigDecimal(6),
+                rs.getString(7),
+                date == null ? null : date.toLocalDate());
+    }
+
+    private record Cursor(Connection connection, PreparedStatement statement, ResultSet resultSet) {
+
+        void close() {
+            try (connection; statement; resultSet) {
+                connection.rollback();
+            } catch (SQLException e) {
+                log.warn("⚠️ Export cursor yopilmadi", e);
+            }
+        }
+    }
+}
@@ -1,29 +1,22 @@
 package org.example.importexportservice.repository;
 
+import jakarta.persistence.LockModeType;
 import org.example.importexportservice.entity.TradeData;
 import org.example.importexportservice.enums.TradeOperationType;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
-import java.util.Optional;
 import java.util.Set;
 
 @Repository
 public interface TradeDataRepository extends JpaRepository<TradeData,Long> {
 
-    @Query("SELECT t.uniqueHash FROM TradeData t WHERE t.uniqueHash IN :hashes")
-    List<String> findExistingHashes(@Param(("hashes"))Set<String> hashes);
-
-    @Query("SELECT DISTINCT t.companyInn FROM TradeData t where t.companyInn NOT IN (SELECT o.inn FROM Organization o)")
-    List<String> findInnsToEnrich();
-
-    @Query("SELECT t FROM TradeData t WHERE  t.uniqueHash = :hash")
-    Optional<TradeData> findByHash(@Param("hash") String hash);
-
+    /**
+     * To'liq identity bo'yicha – bitta partitionning unique indeksi
+     */
     List<TradeData> findByCompanyInnAndHsCodeAndDeclarationDateAndTradeOperationType(
             String companyInn,
             String hsCode,
@@ -31,5 +24,14 @@ public interface TradeDataRepository extends JpaRepository<TradeData,Long> {
             TradeOperationType tradeOperationType
     );
 
+    /**
+     * Batch uchun mavjud qatorlarni bitta so'rovda oladi (superset, identity bo'yicha keyin filtrlanadi).
+     * declaration_date IN (...) → faqat shu oylar partitionlari o'qiladi.
+     * FOR UPDATE: rollup/CDC eski qiymati tranzaksiya oxirigacha o'zgarmaydi; id tartibida → deadlock yo'q.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<TradeData> findByCompanyInnInAndDeclarationDateInOrderByIdAsc(Set<String> companyInns,
+                                                                        Set<LocalDate> declarationDates);
+
 
 }
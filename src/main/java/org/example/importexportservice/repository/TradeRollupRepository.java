@@ -0,0 +1,91 @@
+package org.example.importexportservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class TradeRollupRepository {
+
+    /**
+     * Delta'lar bitta statement bilan qo'shiladi (kalitlar oldindan birlashtirilgan va lock tartibida
+     * saralangan bo'lishi kerak – unnest massiv tartibini saqlaydi)
+     */
+    private static final String APPLY_SQL = """
+            INSERT INTO trade_rollup_monthly (hs_prefix, country_code, month, operation_type, total_value, row_count)
+            SELECT * FROM unnest(?::text[], ?::text[], ?::date[], ?::text[], ?::numeric[], ?::bigint[])
+            ON CONFLICT (hs_prefix, country_code, month, operation_type)
+            DO UPDATE SET total_value = trade_rollup_monthly.total_value + EXCLUDED.total_value,
+                          row_count   = trade_rollup_monthly.row_count + EXCLUDED.row_count,
+                          updated_at  = now()
+            """;
+
+    private static final String REBUILD_SQL = """
+            INSERT INTO trade_rollup_monthly (hs_prefix, country_code, month, operation_type, total_value, row_count)
+            SELECT coalesce(left(hs_code, ?), ''),
+                   coalesce(country_code, ''),
+                   date_trunc('month', declaration_date)::date,
+                   coalesce(operation_type, ''),
+                   sum(coalesce(goods_value, 0)),
+                   count(*)
+            FROM trade_data
+            WHERE declaration_date IS NOT NULL
+            GROUP BY 1, 2, 3, 4
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record Delta(String hsPrefix, String countryCode, LocalDate month, String operationType,
+                        BigDecimal value, long count) {
+    }
+
+    public int apply(List<Delta> deltas) {
+
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+
+        int size = deltas.size();
+        String[] prefixes = new String[size];
+        String[] countries = new String[size];
+        String[] months = new String[size];
+        String[] operations = new String[size];
+        String[] values = new String[size];
+        Long[] counts = new Long[size];
+
+        for (int i = 0; i < size; i++) {
+            Delta d = deltas.get(i);
+            prefixes[i] = d.hsPrefix();
+            countries[i] = d.countryCode();
+            months[i] = d.month().toString();
+            operations[i] = d.operationType();
+            values[i] = d.value().toPlainString();
+            counts[i] = d.count();
+        }
+
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(APPLY_SQL);
+            ps.setArray(1, con.createArrayOf("text", prefixes));
+            ps.setArray(2, con.createArrayOf("text", countries));
+            ps.setArray(3, con.createArrayOf("text", months));
+            ps.setArray(4, con.createArrayOf("text", operations));
+            ps.setArray(5, con.createArrayOf("text", values));
+            ps.setArray(6, con.createArrayOf("bigint", counts));
+            return ps;
+        });
+    }
+
+    /**
+     * Chaqiruvchi tranzaksiya ichida: eski agregat o'chiriladi va trade_data dan qayta hisoblanadi
+     */
+    public int rebuild(int hsPrefixLength) {
+        jdbcTemplate.update("DELETE FROM trade_rollup_monthly");
+        return jdbcTemplate.update(REBUILD_SQL, hsPrefixLength);
+    }
+}
@@ -0,0 +1,113 @@
+package org.example.importexportservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.example.importexportservice.dto.SliceKey;
+import org.example.importexportservice.hash.SliceDigest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class TradeSliceDigestRepository {
+
+    /**
+     * pg_advisory_xact_lock(namespace, epochDay): writer'lar shared, qayta hisoblash exclusive oladi
+     */
+    private static final int LOCK_NAMESPACE = 0x7D16E5;
+
+    private static final String FIND_SQL = """
+            SELECT declaration_date, operation_type, hs_chapter, row_count, hash_sum_hi, hash_sum_lo
+            FROM trade_slice_digests
+            WHERE declaration_date = ?
+            """;
+
+    /**
+     * Bitta sana trade_data dan qayta hisoblanadi – (declaration_date, id) indeksi, bitta oylik partition
+     */
+    private static final String REFRESH_SQL = """
+            INSERT INTO trade_slice_digests (declaration_date, operation_type, hs_chapter,
+                                             row_count, hash_sum_hi, hash_sum_lo)
+            SELECT declaration_date,
+                   coalesce(operation_type, ''),
+                   coalesce(left(hs_code, ?), ''),
+                   count(*),
+                   sum(('x' || substr(unique_hash, 1, 8))::bit(32)::int),
+                   sum(('x' || substr(unique_hash, 9, 8))::bit(32)::int)
+            FROM trade_data
+            WHERE declaration_date = ?
+            GROUP BY 1, 2, 3
+            RETURNING declaration_date, operation_type, hs_chapter, row_count, hash_sum_hi, hash_sum_lo
+            """;
+
+    private static final String LOCK_SHARED_SQL = """
+            SELECT pg_advisory_xact_lock_shared(?, d)
+            FROM unnest(?::int[]) AS d
+            ORDER BY d
+            """;
+
+    private static final RowMapper<Slice> ROW_MAPPER = (rs, rowNum) -> new Slice(
+            new SliceKey(rs.getDate(1).toLocalDate(), rs.getString(2), rs.getString(3)),
+            new SliceDigest(rs.getLong(4), rs.getLong(5), rs.getLong(6)));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record Slice(SliceKey key, SliceDigest digest) {
+    }
+
+    public List<Slice> find(LocalDate declarationDate) {
+        return jdbcTemplate.query(FIND_SQL, ROW_MAPPER, declarationDate);
+    }
+
+    /**
+     * Tranzaksiya ichida chaqirilishi kerak: exclusive lock shu sanaga yozayotgan tranzaksiyalar commit
+     * bo'lishini kutadi, shuning uchun hisoblangan digest ulardan eskirgan bo'lmaydi
+     */
+    public List<Slice> refresh(LocalDate declarationDate, int chapterLength) {
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(?, ?)", rs -> { },
+                LOCK_NAMESPACE, (int) declarationDate.toEpochDay());
+        jdbcTemplate.update("DELETE FROM trade_slice_digests WHERE declaration_date = ?", declarationDate);
+        return jdbcTemplate.query(REFRESH_SQL, ROW_MAPPER, chapterLength, declarationDate);
+    }
+
+    /**
+     * Writer tranzaksiyasida: sanalar shared lock bilan belgilanadi (writer'lar bir-birini kutmaydi)
+     * va digestlari o'chiriladi
+     */
+    public int invalidate(Collection<LocalDate> declarationDates) {
+
+        if (declarationDates.isEmpty()) {
+            return 0;
+        }
+
+        Integer[] epochDays = declarationDates.stream()
+                .map(date -> (int) date.toEpochDay())
+                .toArray(Integer[]::new);
+        String[] dates = declarationDates.stream()
+                .map(LocalDate::toString)
+                .toArray(String[]::new);
+
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(LOCK_SHARED_SQL);
+            ps.setInt(1, LOCK_NAMESPACE);
+            ps.setArray(2, con.createArrayOf("integer", epochDays));
+            return ps;
+        }, rs -> { });
+
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "DELETE FROM trade_slice_digests WHERE declaration_date = ANY (?::date[])");
+            ps.setArray(1, con.createArrayOf("text", dates));
+            return ps;
+        });
+    }
+
+    public int clear() {
+        return jdbcTemplate.update("DELETE FROM trade_slice_digests");
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.importexportservice.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.importexportservice.dto.BatchWriteResult;
+import org.example.importexportservice.entity.TradeData;
+import org.example.importexportservice.enums.WriteMode;
+import org.example.importexportservice.repository.TradeDataBulkRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+@Service
+@RequiredArgsConstructor
+public class BulkTradeDataBatchWriter implements TradeDataBatchWriter {
+
+    private final TradeDataBulkRepository tradeDataBulkRepository;
+    private final TradeRollupService tradeRollupService;
+    private final TradeChangeOutbox tradeChangeOutbox;
+    private final TradeSliceDigests tradeSliceDigests;
+    private final EnrichmentQueue enrichmentQueue;
+
+    @Override
+    public WriteMode mode() {
+        return WriteMode.BULK;
+    }
+
+    /**
+     * Upsert, rollup delta'si, CDC hodisalari, digest invalidatsiyasi va enrich navbati bitta tranzaksiyada
+     */
+    @Override
+    @Transactional
+    public BatchWriteResult write(Collection<TradeData> rows) {
+        BatchWriteResult result = tradeDataBulkRepository.upsert(rows);
+        tradeRollupService.apply(result.changes());
+        tradeChangeOutbox.record(result.changes());
+        tradeSliceDigests.invalidate(result.changes());
+        enrichmentQueue.record(rows);
+        return result;
+    }
+}
@@ -1,21 +1,32 @@
 package org.example.importexportservice.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.importexportservice.custom.BusinessRegApiException;
+import org.example.importexportservice.custom.LookupRejectedException;
+import org.example.importexportservice.custom.RateLimitedException;
 import org.example.importexportservice.dto.repsonse.IndividualResponseDto;
 import org.example.importexportservice.dto.repsonse.LegalResponseDto;
-import org.example.importexportservice.token.TokenHolder;
+import org.example.importexportservice.limiter.SingleFlight;
+import org.example.importexportservice.limiter.TokenBucket;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
 import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
 import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
@@ -23,7 +34,10 @@ import java.util.Map;
     public class BusinessRegService {
 
     private final WebClient webClient;
-    private final TokenHolder tokenHolder;
+    private final TokenBucket businessRegRateLimiter;
+    private final SingleFlight<String, LegalResponseDto> legalLookups;
+    private final SingleFlight<String, IndividualResponseDto> individualLookups;
+    private final MeterRegistry meterRegistry;
 
     @Value("${app.api.endpoints.business-reg.legal}")
     private String legalUrl;
@@ -31,11 +45,22 @@ import java.util.Map;
     @Value("${app.api.endpoints.business-reg.individuals}")
     private String individualsUrl;
 
+    @Value("${app.api.business-reg.max-retries:3}")
+    private int maxRetries;
+
+    @Value("${app.api.business-reg.retry-backoff:1s}")
+    private Duration retryBackoff;
+
+    // Retry-After kelmagan 429 uchun
+    @Value("${app.api.business-reg.default-retry-after:5s}")
+    private Duration defaultRetryAfter;
+
     /**
      * TIN (INN) bo'yicha yuridik shaxs ma'lumotlarini oladi
      *
      * @param tin 9 raqamli INN
-     * @return LegalResponseDto yoki null (xato bo'lsa)
+     * @return LegalResponseDto; topilmasa bo'sh, 4xx → {@link LookupRejectedException},
+     * retry'lardan keyingi 429/5xx/timeout xatosi o'zicha uzatiladi (natija turini enrich belgilaydi)
      */
 
     public Mono<LegalResponseDto> getLegalDetails(String tin) {
@@ -45,25 +70,27 @@ import java.util.Map;
             return Mono.empty();
         }
 
+        // bir INN bo'yicha parallel so'rovlar bitta upstream chaqiruvni bo'lishadi
+        return legalLookups.execute(tin, () -> fetchLegalDetails(tin));
+    }
+
+    private Mono<LegalResponseDto> fetchLegalDetails(String tin) {
+
         log.debug("🏢 Legal API chaqirilmoqda → INN={}", tin);
 
-        return webClient.get()
+        return timed("legal", call("Legal", tin, () -> webClient.get()
                 .uri(uriBuilder -> UriComponentsBuilder
                         .fromUriString(legalUrl)
                         .queryParam("tin", tin)
                         .build()
                         .toUri())
-                .header(HttpHeaders.AUTHORIZATION, "Bearer " + tokenHolder.getToken())
                 .accept(MediaType.APPLICATION_JSON)
 
                 .retrieve()
 
                 .onStatus(
                         status -> status.value() == 429,
-                        response -> {
-                            log.warn("⏳ Legal API rate limit (429) → INN={} SKIP", tin);
-                            return Mono.error(new RuntimeException("Rate limit 429"));
-                        }
+                        response -> rateLimited("Legal", tin, response)
                 )
 
                 .onStatus(
@@ -71,61 +98,148 @@ import java.util.Map;
                         response -> response.bodyToMono(String.class)
                                 .flatMap(body -> {
                                     log.error("🔥 Legal API 5xx → INN={}, body={}", tin, body);
-                                    return Mono.error(new RuntimeException("Legal API 5xx"));
+                                    return Mono.error(new BusinessRegApiException("Legal API 5xx"));
                                 })
                 )
 
+                .onStatus(
+                        HttpStatusCode::is4xxClientError,
+                        response -> response.releaseBody()
+                                .then(Mono.error(new LookupRejectedException("Legal API " + response.statusCode())))
+                )
+
                 .bodyToMono(LegalResponseDto.class)
 
-                .timeout(Duration.ofSeconds(10))
+                .timeout(Duration.ofSeconds(10))))
 
-                .onErrorResume(e -> {
-                    log.warn("⚠️ Legal API SKIP → INN={}", tin);
-                    return Mono.empty();
-                });
+                .doOnError(e -> log.warn("⚠️ Legal API xato → INN={} ({})", tin, e.getMessage()));
 
     }
 
+    /**
+     * @param pinfl 14 raqamli PINFL
+     */
     public Mono<IndividualResponseDto> getIndividualDetails(String pinfl) {
         if (pinfl == null || pinfl.length() != 14) {
             log.warn("⚠️ Noto‘g‘ri PINFL uzunligi: {}", pinfl);
             return Mono.empty();
         }
 
+        return individualLookups.execute(pinfl, () -> fetchIndividualDetails(pinfl));
+    }
+
+    private Mono<IndividualResponseDto> fetchIndividualDetails(String pinfl) {
+
         log.debug("👤 Individual API chaqirilmoqda → PINFL={}", pinfl);
 
         Map<String, String> body = Map.of("pinfl", pinfl);
 
-        return webClient.post()
+        return timed("individual", call("Individual", pinfl, () -> webClient.post()
                 .uri(individualsUrl)
-                .header(HttpHeaders.AUTHORIZATION, "Bearer " + tokenHolder.getToken())
                 .contentType(MediaType.APPLICATION_JSON)
                 .bodyValue(body)
 
                 .retrieve()
 
+                .onStatus(
+                        status -> status.value() == 429,
+                        response -> rateLimited("Individual", pinfl, response)
+                )
+
                 .onStatus(
                         status -> status.is4xxClientError() || status.is5xxServerError(),
                         response -> response.bodyToMono(String.class)
                                 .flatMap(b -> {
                                     log.error("🔥 Individual API error → PINFL={}, body={}", pinfl, b);
-                                    return Mono.error(new RuntimeException("Individual API error"));
+                                    return Mono.error(response.statusCode().is5xxServerError()
+                                            ? new BusinessRegApiException("Individual API 5xx")
+                                            : new LookupRejectedException("Individual API " + response.statusCode()));
                                 })
                 )
 
                 .bodyToMono(IndividualResponseDto.class)
 
-                .timeout(Duration.ofSeconds(10))
+                .timeout(Duration.ofSeconds(10))))
 
-                // ✅ Bitta xato butun enrichni to‘xtatmasin
-                .onErrorResume(e -> {
-                    log.warn("⚠️ Individual API SKIP → PINFL={}", pinfl);
-                    return Mono.empty();
-                });
+                .doOnError(e -> log.warn("⚠️ Individual API xato → PINFL={} ({})", pinfl, e.getMessage()));
+    }
+
+    /**
+     * Single-flight tufayli upstream'ga yuborilmagan (birlashtirilgan) so'rovlar soni
+     */
+    public long getCoalescedCalls() {
+        return (long) (legalLookups.getCoalesced() + individualLookups.getCoalesced());
     }
-}
 
+    /**
+     * Har urinish (retry ham) rate limiterdan token oladi; 429/5xx/timeout exponential backoff bilan qaytariladi
+     */
+    private <T> Mono<T> call(String api, String id, Supplier<Mono<T>> request) {
+        return Mono.defer(() -> businessRegRateLimiter.acquire().then(Mono.defer(request)))
+                .retryWhen(Retry.backoff(maxRetries, retryBackoff)
+                        .filter(BusinessRegService::isRetryable)
+                        .doBeforeRetry(signal -> {
+                            meterRegistry.counter("business_reg.retries", "api", api).increment();
+                            log.debug("🔁 {} API retry #{} → ID={} ({})",
+                                    api, signal.totalRetries() + 1, id, signal.failure().getMessage());
+                        })
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
 
+    /**
+     * business_reg.request: upstream chaqiruv (retry'lar bilan) vaqti, api va natija turi bo'yicha
+     */
+    private <T> Mono<T> timed(String api, Mono<T> request) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return request
+                    .doOnSuccess(value -> sample.stop(requestTimer(api, value == null ? "not_found" : "found")))
+                    .doOnError(e -> sample.stop(requestTimer(api, outcomeOf(e))));
+        });
+    }
 
+    private Timer requestTimer(String api, String outcome) {
+        return Timer.builder("business_reg.request")
+                .tag("api", api)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
 
+    private static String outcomeOf(Throwable e) {
+        if (e instanceof RateLimitedException) return "rate_limited";
+        if (e instanceof LookupRejectedException) return "rejected";
+        if (e instanceof TimeoutException) return "timeout";
+        return "error";
+    }
 
+    /**
+     * 429: Retry-After muddatiga butun limiter to'xtatiladi, keyingi urinish shundan keyin token oladi
+     */
+    private Mono<? extends Throwable> rateLimited(String api, String id, ClientResponse response) {
+
+        Duration retryAfter = parseRetryAfter(response.headers().asHttpHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        businessRegRateLimiter.pause(retryAfter);
+        log.warn("⏳ {} API rate limit (429) → ID={}, {} s kutiladi", api, id, retryAfter.toSeconds());
+
+        return response.releaseBody()
+                .then(Mono.error(new RateLimitedException(api + " API rate limit 429", retryAfter)));
+    }
+
+    private Duration parseRetryAfter(String header) {
+        if (header != null) {
+            try {
+                return Duration.ofSeconds(Long.parseLong(header.trim()));
+            } catch (NumberFormatException ignored) {
+                // HTTP-date ko'rinishi – default ishlatiladi
+            }
+        }
+        return defaultRetryAfter;
+    }
+
+    private static boolean isRetryable(Throwable e) {
+        return e instanceof BusinessRegApiException
+                || e instanceof TimeoutException
+                || e instanceof WebClientRequestException;
+    }
+}
@@ -0,0 +1,140 @@
+package org.example.importexportservice.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.example.importexportservice.cache.TtlLruCache;
+import org.example.importexportservice.entity.TradeData;
+import org.example.importexportservice.repository.EnrichmentQueueRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * pending_enrichment navbati ustidagi servis.
+ * <p>
+ * Writer'lar har batchdagi INN larni trade_data bilan bir tranzaksiyada {@link #record} qiladi;
+ * commitdan keyin {@link #markSeen} – yaqinda ko'rilgan INN lar in-process cache orqali qayta DB ga yuborilmaydi.
+ * Cache faqat commit bo'lgan INN larni biladi: rollback bo'lgan batch INN lari keyingi safar yana yoziladi. Startda (sozlamaga ko'ra) mavjud trade_data
+ * bir marta navbat bilan solishtiriladi. Navbat hajmi va eng eski yozuv yoshi metrikada.
+ */
+@Service
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@Slf4j
+public class EnrichmentQueue implements ApplicationRunner {
+
+    private static final Duration SEEN_TTL = Duration.ofHours(12);
+
+    private final EnrichmentQueueRepository enrichmentQueueRepository;
+    private final boolean reconcileOnStartup;
+    private final TtlLruCache<String, Boolean> recentlySeen;
+
+    private volatile long size;
+    private volatile double oldestAgeSeconds;
+
+    public EnrichmentQueue(EnrichmentQueueRepository enrichmentQueueRepository,
+                           @Value("${app.enrich.queue.reconcile-on-startup:false}") boolean reconcileOnStartup,
+                           @Value("${app.enrich.queue.seen-cache-size:100000}") int seenCacheSize,
+                           ObjectProvider<MeterRegistry> meterRegistry) {
+        this.enrichmentQueueRepository = enrichmentQueueRepository;
+        this.reconcileOnStartup = reconcileOnStartup;
+        this.recentlySeen = new TtlLruCache<>(seenCacheSize);
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        Gauge.builder("enrichment.queue.size", this, q -> q.size)
+                .register(registry);
+        Gauge.builder("enrichment.queue.oldest_age_seconds", this, q -> q.oldestAgeSeconds)
+                .register(registry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (reconcileOnStartup) {
+            reconcile();
+        }
+    }
+
+    /**
+     * Yozilayotgan batch: yangi INN lar navbatga qo'shiladi (organizations da borlari tushmaydi).
+     * Chaqiruvchi tranzaksiyasida – trade_data qatorlari bilan birga commit/rollback.
+     */
+    public void record(Collection<TradeData> rows) {
+
+        Set<String> inns = new LinkedHashSet<>();
+        for (TradeData row : rows) {
+            String inn = row.getCompanyInn();
+            if (inn != null && recentlySeen.get(inn) == null) {
+                inns.add(inn);
+            }
+        }
+
+        if (inns.isEmpty()) {
+            return;
+        }
+
+        int enqueued = enrichmentQueueRepository.enqueue(inns);
+
+        if (enqueued > 0) {
+            log.debug("📝 Enrich navbatiga qo'shildi → {}", enqueued);
+        }
+    }
+
+    /**
+     * {@link #record} tranzaksiyasi commit bo'lgandan keyin
+     */
+    public void markSeen(Collection<TradeData> rows) {
+
+        Instant seenUntil = Instant.now().plus(SEEN_TTL);
+        for (TradeData row : rows) {
+            String inn = row.getCompanyInn();
+            if (inn != null) {
+                recentlySeen.put(inn, Boolean.TRUE, seenUntil);
+            }
+        }
+    }
+
+    public List<String> poll(int limit) {
+        return enrichmentQueueRepository.poll(limit);
+    }
+
+    /**
+     * Natijasi organization_lookups ga yozilgan (yoki u yerda TTL bilan turgan) INN lar
+     */
+    public void complete(Collection<String> inns) {
+        enrichmentQueueRepository.remove(new ArrayList<>(inns));
+    }
+
+    public int reconcile() {
+        long started = System.nanoTime();
+        int added = enrichmentQueueRepository.reconcile();
+        log.info("🔁 Enrich navbati trade_data bilan solishtirildi → +{} INN, {} ms",
+                added, Duration.ofNanos(System.nanoTime() - started).toMillis());
+        refreshStats();
+        return added;
+    }
+
+    @Scheduled(fixedDelayString = "${app.enrich.queue.stats-interval:60000}")
+    public void refreshStats() {
+        size = enrichmentQueueRepository.size();
+        Instant oldest = enrichmentQueueRepository.oldestEnqueuedAt();
+        oldestAgeSeconds = oldest == null ? 0 : Duration.between(oldest, Instant.now()).toSeconds();
+    }
+
+    public long getSize() {
+        return size;
+    }
+}
@@ -0,0 +1,119 @@
+package org.example.importexportservice.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.importexportservice.codec.TradeStatPageDecoder;
+import org.example.importexportservice.dto.TradeStatPage;
+import org.example.importexportservice.dto.TradeStatisticDTO;
+import org.example.importexportservice.limiter.AdaptiveConcurrencyLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HsCodeApiClient {
+
+    private static final int MAX_RETRIES = 3;
+
+    private final WebClient webClient;
+    private final TradeStatPageDecoder tradeStatPageDecoder;
+    private final AdaptiveConcurrencyLimiter hsCodeApiLimiter;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.api.endpoints.hscode}")
+    private String hsFullUrl;
+
+    @Value("${app.api.hscode.page-size}")
+    private int pageSize;
+
+    /**
+     * Bitta sahifani stream qilib o'qiydi: qatorlar parse bo'lishi bilan chiqadi,
+     * totalPages/totalElements/error oqim tugaganda {@code page} ichida bo'ladi.
+     * <p>
+     * Har bir urinish adaptiv limiter orqali o'tadi (429/5xx → limit kamayadi).
+     * Retry butun sahifani qaytadan o'qiydi – oldin chiqqan qatorlar yana kelishi mumkin,
+     * yozish yo'li identity bo'yicha idempotent.
+     * Retry'lardan keyin ham xato bo'lsa sahifa {@code failed} deb belgilanadi va bo'sh tugaydi.
+     * Metrikalar: hscode.page.response (javob sarlavhalarigacha – upstream latency), hscode.page.fetch
+     * (butun body; downstream backpressure ham kiradi), hscode.page.retries, hscode.page.failed, hscode.rows.
+     */
+    public Flux<TradeStatisticDTO> fetchPage(TradeStatPage page, LocalDate reqDate, String senderPin) {
+        return hsCodeApiLimiter.run(() -> {
+                    page.reset();
+                    long started = System.nanoTime();
+                    Timer.Sample sample = Timer.start(meterRegistry);
+                    Flux<DataBuffer> body = webClient.get()
+                            .uri(uriBuilder -> UriComponentsBuilder.fromUriString(hsFullUrl)
+                                    .queryParam("transaction_id", "545645645645645645")
+                                    .queryParam("sender_pin", senderPin)
+                                    .queryParam("consent", 1)
+                                    .queryParam("reqDate", reqDate.toString())
+                                    .queryParam("page", page.getPage())
+                                    .queryParam("size", pageSize)
+                                    .build()
+                                    .toUri())
+
+                            .accept(MediaType.APPLICATION_JSON)
+                            .exchangeToFlux(response -> {
+                                boolean error = response.statusCode().isError();
+                                responseTimer(error ? "error" : "success")
+                                        .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                                // retrieve() bilan bir xil WebClientResponseException (limiter 429/5xx ni taniydi)
+                                return error
+                                        ? response.<DataBuffer>createError().flux()
+                                        : response.bodyToFlux(DataBuffer.class);
+                            });
+
+                    return tradeStatPageDecoder.decode(body, page)
+                            .doOnComplete(() -> {
+                                sample.stop(fetchTimer("success"));
+                                meterRegistry.counter("hscode.rows").increment(page.getReceived());
+                            })
+                            .doOnError(e -> sample.stop(fetchTimer("error")));
+                })
+
+                .retryWhen(
+                        Retry.backoff(MAX_RETRIES, Duration.ofSeconds(2))
+                                .doBeforeRetry(r -> {
+                                    meterRegistry.counter("hscode.page.retries").increment();
+                                    log.warn("🔁 Retry {} → page={}",
+                                            r.totalRetries() + 1, page.getPage());
+                                })
+                )
+                .onErrorResume(e -> {
+                    log.error("❌ Sahifa yuklanmadi → page={}", page.getPage(), e);
+                    page.setFailed(true);
+                    meterRegistry.counter("hscode.page.failed").increment();
+                    return Flux.empty();
+                });
+    }
+
+    private Timer responseTimer(String outcome) {
+        return Timer.builder("hscode.page.response")
+                .description("HS-code sahifasi: so'rovdan javob sarlavhalarigacha (bitta urinish)")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private Timer fetchTimer(String outcome) {
+        return Timer.builder("hscode.page.fetch")
+                .description("HS-code sahifasini to'liq o'qish, downstream backpressure bilan (bitta urinish)")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,109 @@
+package org.example.importexportservice.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.importexportservice.dto.BatchWriteResult;
+import org.example.importexportservice.dto.TradeValueChange;
+import org.example.importexportservice.entity.TradeData;
+import org.example.importexportservice.enums.WriteMode;
+import org.example.importexportservice.hash.IdentityKey;
+import org.example.importexportservice.repository.TradeDataRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+
+@Service
+@RequiredArgsConstructor
+public class JpaTradeDataBatchWriter implements TradeDataBatchWriter {
+
+    private final TradeDataRepository tradeDataRepository;
+    private final TradeRollupService tradeRollupService;
+    private final TradeChangeOutbox tradeChangeOutbox;
+    private final TradeSliceDigests tradeSliceDigests;
+    private final EnrichmentQueue enrichmentQueue;
+
+    @Override
+    public WriteMode mode() {
+        return WriteMode.JPA;
+    }
+
+    /**
+     * uniqueHash prepareBatch da hisoblangan.
+     * Avval batchdagi mavjud qatorlar bitta SELECT ... FOR UPDATE bilan olinadi, keyin insert/update
+     * flush paytida JDBC batch bo'lib ketadi (har qatordan keyin SELECT bo'lsa,
+     * Hibernate auto-flush qilib batchingni buzardi).
+     * Rollup delta'si, CDC hodisalari, digest invalidatsiyasi va enrich navbati shu tranzaksiyada.
+     */
+    @Override
+    @Transactional
+    public BatchWriteResult write(Collection<TradeData> rows) {
+
+        int updated = 0;
+        int skipped = 0;
+
+        Map<IdentityKey, TradeData> existingByKey = loadExisting(rows);
+        List<TradeData> toInsert = new ArrayList<>();
+        List<TradeValueChange> changes = new ArrayList<>();
+
+        for (TradeData entity : rows) {
+
+            TradeData existing = existingByKey.get(entity.identityKey());
+
+            if (existing == null) {
+                toInsert.add(entity);
+                continue;
+            }
+
+            String newHash = entity.getUniqueHash();
+
+            if (newHash.equals(existing.getUniqueHash())) {
+                skipped++;
+                continue;
+            }
+
+            String oldCountryCode = existing.getCountryCode();
+            BigDecimal oldGoodsValue = existing.getGoodsValue();
+
+            // managed entity → update flush paytida yoziladi
+            existing.setGoodsValue(entity.getGoodsValue());
+            existing.setCountryCode(entity.getCountryCode());
+            existing.setUniqueHash(newHash);
+            changes.add(TradeValueChange.updated(existing, oldCountryCode, oldGoodsValue));
+            updated++;
+        }
+
+        tradeDataRepository.saveAll(toInsert);
+
+        for (TradeData inserted : toInsert) {
+            changes.add(TradeValueChange.inserted(inserted));
+        }
+        tradeRollupService.apply(changes);
+        tradeChangeOutbox.record(changes);
+        tradeSliceDigests.invalidate(changes);
+        enrichmentQueue.record(rows);
+
+        return new BatchWriteResult(toInsert.size(), updated, skipped, changes);
+    }
+
+    private Map<IdentityKey, TradeData> loadExisting(Collection<TradeData> rows) {
+
+        Set<String> inns = new HashSet<>();
+        Set<LocalDate> dates = new HashSet<>();
+        for (TradeData row : rows) {
+            inns.add(row.getCompanyInn());
+            if (row.getDeclarationDate() != null) dates.add(row.getDeclarationDate());
+        }
+
+        Map<IdentityKey, TradeData> existingByKey = new HashMap<>();
+        if (inns.isEmpty() || dates.isEmpty()) {
+            return existingByKey;
+        }
+
+        for (TradeData existing : tradeDataRepository.findByCompanyInnInAndDeclarationDateInOrderByIdAsc(inns, dates)) {
+            existingByKey.putIfAbsent(existing.identityKey(), existing);
+        }
+        return existingByKey;
+    }
+}
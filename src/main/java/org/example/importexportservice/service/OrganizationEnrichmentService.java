@@ -0,0 +1,262 @@
+package org.example.importexportservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.importexportservice.cache.TtlLruCache;
+import org.example.importexportservice.custom.LookupRejectedException;
+import org.example.importexportservice.dto.LookupResult;
+import org.example.importexportservice.entity.Organization;
+import org.example.importexportservice.enums.LookupOutcome;
+import org.example.importexportservice.enums.TradeType;
+import org.example.importexportservice.limiter.PipelineStage;
+import org.example.importexportservice.repository.OrganizationBulkRepository;
+import org.example.importexportservice.repository.OrganizationLookupRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Organization enrich: INN lar parallel so'raladi (tezlikni businessRegRateLimiter belgilaydi),
+ * natijalar batch bo'lib bitta upsert bilan organizations ga yoziladi.
+ * <p>
+ * Har so'rov natijasi organization_lookups ga TTL bilan yoziladi: muddat kelmaguncha INN
+ * qayta so'ralmaydi. Uning oldida in-process cache – bir run ichidagi takrorlar DB ga ham bormaydi.
+ */
+@Service
+@Slf4j
+public class OrganizationEnrichmentService {
+
+    private final BusinessRegService businessRegService;
+    private final OrganizationBulkRepository organizationBulkRepository;
+    private final OrganizationLookupRepository organizationLookupRepository;
+    private final EnrichmentQueue enrichmentQueue;
+    // trade persist bilan bitta DB gate: organization save ham pool hajmidan oshmaydi
+    private final PipelineStage persistStage;
+
+    // bir vaqtda ochiq so'rovlar; haqiqiy tezlik token-bucket kvotasi bilan cheklanadi
+    @Value("${app.enrich.parallelism:16}")
+    private int parallelism;
+
+    @Value("${app.enrich.batch-size:200}")
+    private int batchSize;
+
+    // sekin oqimda ham natijalar shu vaqtdan ortiq xotirada turmaydi
+    @Value("${app.enrich.flush-interval:5s}")
+    private Duration flushInterval;
+
+    @Value("${app.enrich.ttl.found:30d}")
+    private Duration foundTtl;
+
+    @Value("${app.enrich.ttl.not-found:14d}")
+    private Duration notFoundTtl;
+
+    @Value("${app.enrich.ttl.transient-error:1h}")
+    private Duration transientErrorTtl;
+
+    // bir runda qayta so'raladigan, TTL muddati o'tgan INN lar soni
+    @Value("${app.enrich.refresh-limit:1000}")
+    private int refreshLimit;
+
+    // navbatdan bir marta o'qiladigan INN lar
+    @Value("${app.enrich.queue.chunk-size:5000}")
+    private int queueChunkSize;
+
+    private final TtlLruCache<String, LookupOutcome> recentLookups;
+
+    public OrganizationEnrichmentService(BusinessRegService businessRegService,
+                                         OrganizationBulkRepository organizationBulkRepository,
+                                         OrganizationLookupRepository organizationLookupRepository,
+                                         EnrichmentQueue enrichmentQueue,
+                                         PipelineStage persistStage,
+                                         @Value("${app.enrich.cache.max-entries:200000}") int cacheMaxEntries) {
+        this.businessRegService = businessRegService;
+        this.organizationBulkRepository = organizationBulkRepository;
+        this.organizationLookupRepository = organizationLookupRepository;
+        this.enrichmentQueue = enrichmentQueue;
+        this.persistStage = persistStage;
+        this.recentLookups = new TtlLruCache<>(cacheMaxEntries);
+    }
+
+    /**
+     * TTL muddati o'tgan INN lar, keyin pending_enrichment navbati bo'shaguncha chunk-chunk
+     */
+    public void enrichPending() {
+
+        List<String> due = organizationLookupRepository.findDueForRefresh(refreshLimit);
+        if (!due.isEmpty()) {
+            log.info("♻️ TTL muddati o'tgan INN lar qayta tekshiriladi → {}", due.size());
+            enrich(due);
+        }
+
+        // har chunk navbatdan o'chiriladi (natija organization_lookups da qoladi) → sikl tugaydi
+        List<String> chunk;
+        while (!(chunk = enrichmentQueue.poll(queueChunkSize)).isEmpty()) {
+            enrich(chunk);
+        }
+
+        enrichmentQueue.refreshStats();
+    }
+
+    public void enrich(Collection<String> candidates) {
+
+        List<String> inns = filterSuppressed(candidates);
+
+        // cache/TTL bo'yicha o'tkazilganlar uchun natija allaqachon bor – navbatda turishi shart emas
+        if (inns.size() < candidates.size()) {
+            Set<String> skipped = new LinkedHashSet<>(candidates);
+            inns.forEach(skipped::remove);
+            enrichmentQueue.complete(skipped);
+        }
+
+        if (inns.isEmpty()) {
+            log.info("🏁 Enrich uchun yangi INN yo‘q (cache/TTL bo‘yicha o‘tkazildi: {})", candidates.size());
+            return;
+        }
+
+        long started = System.nanoTime();
+        long coalescedBefore = businessRegService.getCoalescedCalls();
+        AtomicInteger[] outcomes = {new AtomicInteger(), new AtomicInteger(), new AtomicInteger()};
+        AtomicInteger saved = new AtomicInteger();
+
+        log.info("🏢 Organization enrich boshlandi → {} ta INN ({} tasi cache/TTL bo‘yicha o‘tkazildi), parallelism={}",
+                inns.size(), candidates.size() - inns.size(), parallelism);
+
+        Flux.fromIterable(inns)
+                .flatMap(this::lookup, parallelism)
+                .doOnNext(result -> outcomes[result.outcome().ordinal()].incrementAndGet())
+                .bufferTimeout(batchSize, flushInterval)
+                .concatMap(batch ->
+                        persistStage.submit(() -> persist(batch))
+                                .doOnNext(saved::addAndGet)
+                )
+                .doOnComplete(() -> {
+                    long elapsedMs = Math.max(Duration.ofNanos(System.nanoTime() - started).toMillis(), 1);
+                    log.info("""
+                    🏁 Organization enrich tugadi ({} ms):
+                    📥 INN: {}
+                    ✅ Topildi: {}
+                    🚫 Topilmadi: {}
+                    ⏳ Vaqtinchalik xato: {}
+                    💾 Yozildi: {}
+                    🔗 Birlashtirilgan so‘rov: {}
+                    ⚡ Tezlik: {} INN/s
+                    """, elapsedMs, inns.size(),
+                            outcomes[LookupOutcome.FOUND.ordinal()].get(),
+                            outcomes[LookupOutcome.NOT_FOUND.ordinal()].get(),
+                            outcomes[LookupOutcome.TRANSIENT_ERROR.ordinal()].get(),
+                            saved.get(), businessRegService.getCoalescedCalls() - coalescedBefore,
+                            inns.size() * 1000L / elapsedMs);
+                })
+                .doOnError(e -> log.error("❌ Enrich jarayonida xato", e))
+                .blockLast();
+    }
+
+    /**
+     * Avval in-process cache, keyin organization_lookups.next_check_at
+     */
+    private List<String> filterSuppressed(Collection<String> candidates) {
+
+        List<String> uncached = new ArrayList<>(candidates.size());
+        for (String inn : new LinkedHashSet<>(candidates)) {
+            if (recentLookups.get(inn) == null) {
+                uncached.add(inn);
+            }
+        }
+
+        Map<String, Instant> suppressed = organizationLookupRepository.findSuppressed(uncached);
+        suppressed.forEach((inn, nextCheckAt) -> recentLookups.put(inn, LookupOutcome.NOT_FOUND, nextCheckAt));
+
+        uncached.removeIf(suppressed::containsKey);
+        return uncached;
+    }
+
+    private int persist(List<LookupResult> batch) {
+
+        List<Organization> found = batch.stream()
+                .filter(r -> r.outcome() == LookupOutcome.FOUND)
+                .map(LookupResult::organization)
+                .toList();
+
+        int saved = organizationBulkRepository.upsert(found);
+        organizationLookupRepository.record(batch, this::ttl);
+        enrichmentQueue.complete(batch.stream().map(LookupResult::inn).toList());
+
+        Instant now = Instant.now();
+        for (LookupResult result : batch) {
+            recentLookups.put(result.inn(), result.outcome(), now.plus(ttl(result.outcome())));
+        }
+        return saved;
+    }
+
+    private Duration ttl(LookupOutcome outcome) {
+        return switch (outcome) {
+            case FOUND -> foundTtl;
+            case NOT_FOUND -> notFoundTtl;
+            case TRANSIENT_ERROR -> transientErrorTtl;
+        };
+    }
+
+    private Mono<LookupResult> lookup(String inn) {
+
+        if (inn.length() == 9) {
+            return businessRegService.getLegalDetails(inn)
+                    .map(dto -> LookupResult.found(Organization.builder()
+                            .inn(inn)
+                            .type(TradeType.LEGAL)
+                            .name(dto.getCompanyName())
+                            .shortName(dto.getCompanyShortName())
+                            .region(toStr(dto.getHomeRegion()))
+                            .district(toStr(dto.getCertificateGivenBy()))
+                            .build()))
+                    .defaultIfEmpty(LookupResult.notFound(inn, "empty response"))
+                    .onErrorResume(e -> Mono.just(failure(inn, e)));
+        }
+
+        if (inn.length() == 14) {
+            return businessRegService.getIndividualDetails(inn)
+                    .map(dto -> LookupResult.found(Organization.builder()
+                            .inn(inn)
+                            .type(TradeType.INDIVIDUAL)
+                            .firstName(dto.getFirstname())
+                            .lastName(dto.getLastname())
+                            .region(toStr(dto.getRegistrationRegionSoato()))
+                            .district(toStr(dto.getCertGivenBy()))
+                            .build()))
+                    .defaultIfEmpty(LookupResult.notFound(inn, "empty response"))
+                    .onErrorResume(e -> Mono.just(failure(inn, e)));
+        }
+
+        log.warn("❗ Noma'lum INN/PINFL uzunligi → {}", inn);
+        return Mono.just(LookupResult.notFound(inn, "invalid length"));
+    }
+
+    /**
+     * 4xx → NOT_FOUND (uzoq TTL), qolgani (retry'dan keyingi 429/5xx/timeout) → TRANSIENT_ERROR
+     */
+    private LookupResult failure(String inn, Throwable e) {
+        boolean rejected = e instanceof LookupRejectedException
+                || (e instanceof WebClientResponseException response
+                && response.getStatusCode().is4xxClientError()
+                && response.getStatusCode().value() != 429);
+
+        log.warn("⚠️ Enrich skip → INN={} ({})", inn, e.getMessage());
+        return rejected
+                ? LookupResult.notFound(inn, e.getMessage())
+                : LookupResult.transientError(inn, String.valueOf(e.getMessage()));
+    }
+
+    private String toStr(Object o) {
+        return o == null ? null : String.valueOf(o);
+    }
+}
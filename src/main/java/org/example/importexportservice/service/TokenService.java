@@ -1,9 +1,9 @@
 package org.example.importexportservice.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.importexportservice.dto.repsonse.TokenResponseDto;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatusCode;
@@ -15,6 +15,8 @@ import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+
 @Service
 public class TokenService {
 
@@ -29,14 +31,19 @@ public class TokenService {
     @Value("${app.api.password}")
     private String password;
 
+    @Value("${app.api.token.timeout:10s}")
+    private Duration timeout;
+
     private final WebClient webClient;
 
-    public TokenService(WebClient webClient) {
+    /**
+     * Token so'rovi Bearer filtrsiz client bilan ketadi (filtr o'zi shu servisga tayanadi)
+     */
+    public TokenService(@Qualifier("tokenWebClient") WebClient webClient) {
         this.webClient = webClient;
     }
 
-    public String getAccessToken() {
-        log.info("Token olish so'rovi yuborilmoqda: {}", tokenUrl);
+    public Mono<TokenResponseDto> fetchToken() {
 
         String authHeader = "Basic YVJmYU1SOEJSdW5lVGY0MG1wZUhmYnVHNnk4YTpvd1pFdlJSUERjb25vdGJibVI3NENUbWlkQ29h";
 
@@ -45,32 +52,33 @@ public class TokenService {
         formData.add("username", username);
         formData.add("password", password);
 
-        try {
-            String response = webClient.post()
-                    .uri(tokenUrl)
-                    .header(HttpHeaders.AUTHORIZATION, authHeader)
-                    .contentType(MediaType.APPLICATION_FORM_URLENCODED)
-                    .body(BodyInserters.fromFormData(formData))
-                    .retrieve()
-                    .onStatus(HttpStatusCode::isError, clientResponse ->
-                            clientResponse.bodyToMono(String.class).flatMap(errorBody -> {
-                                log.error("Server xatosi: {}, Body: {}", clientResponse.statusCode(), errorBody);
-                                return Mono.error(new RuntimeException("OAuth2 xatosi: " + errorBody));
-                            })
-                    )
-                    .bodyToMono(String.class)
-                    .block();
-
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode jsonNode = mapper.readTree(response);
-            String accessToken = jsonNode.get("access_token").asText();
-
-            log.info("Token muvaffaqiyatli olingan: {}...", accessToken.substring(0, 15));
-            return accessToken;
-
-        } catch (Exception e) {
-            log.error("Xatolik: {}", e.getMessage());
-            throw new RuntimeException("Access token olishda xato", e);
-        }
+        return Mono.defer(() -> {
+                    log.info("Token olish so'rovi yuborilmoqda: {}", tokenUrl);
+                    return webClient.post()
+                            .uri(tokenUrl)
+                            .header(HttpHeaders.AUTHORIZATION, authHeader)
+                            .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                            .body(BodyInserters.fromFormData(formData))
+                            .retrieve()
+                            .onStatus(HttpStatusCode::isError, clientResponse ->
+                                    clientResponse.bodyToMono(String.class)
+                                            .defaultIfEmpty("")
+                                            .flatMap(errorBody -> {
+                                                log.error("Server xatosi: {}, Body: {}", clientResponse.statusCode(), errorBody);
+                                                return Mono.error(new IllegalStateException("OAuth2 xatosi: " + errorBody));
+                                            })
+                            )
+                            .bodyToMono(TokenResponseDto.class);
+                })
+                .timeout(timeout)
+                .flatMap(response -> {
+                    String accessToken = response.getAccessToken();
+                    if (accessToken == null || accessToken.isBlank()) {
+                        return Mono.error(new IllegalStateException("Token javobida access_token yo'q"));
+                    }
+                    log.info("Token muvaffaqiyatli olingan: {}..., expires_in={}",
+                            accessToken.substring(0, Math.min(15, accessToken.length())), response.getExpiresIn());
+                    return Mono.just(response);
+                });
     }
 }
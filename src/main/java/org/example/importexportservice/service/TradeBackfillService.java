@@ -0,0 +1,173 @@
+package org.example.importexportservice.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.importexportservice.cache.DedupWindow;
+import org.example.importexportservice.dto.BackfillDay;
+import org.example.importexportservice.enums.DayStatus;
+import org.example.importexportservice.repository.BackfillDayRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Ixtiyoriy sana oralig'ini qayta sinxronlash: oraliq kunlarga bo'linadi, bir vaqtda day-concurrency ta kun ishlaydi.
+ * <p>
+ * Har kun ichida page-concurrency ta sahifa ochiq bo'lishi mumkin, lekin barcha kunlarning so'rovlari
+ * bitta hsCodeApiLimiter orqali o'tadi – umumiy parallellikni import/update bilan bo'lishilgan limiter belgilaydi.
+ * Kun holati backfill_days da: qayta ishga tushirilganda faqat DONE bo'lmagan kunlar olinadi.
+ * <p>
+ * Ishga tushirish: {@code --backfill-from=2025-01-01 --backfill-to=2025-03-31 [--backfill-force]}
+ * yoki {@code POST /api/backfill}.
+ */
+@Service
+@Order(Ordered.HIGHEST_PRECEDENCE + 40)
+@Slf4j
+public class TradeBackfillService implements ApplicationRunner {
+
+    private final TradeDataService tradeDataService;
+    private final TradeImportPipeline tradeImportPipeline;
+    private final BackfillDayRepository backfillDayRepository;
+    private final TradeDataPartitionManager tradeDataPartitionManager;
+    private final MeterRegistry meterRegistry;
+    private final int dayConcurrency;
+    private final int pageConcurrency;
+    private final int maxDays;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    public TradeBackfillService(TradeDataService tradeDataService,
+                                TradeImportPipeline tradeImportPipeline,
+                                BackfillDayRepository backfillDayRepository,
+                                TradeDataPartitionManager tradeDataPartitionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.backfill.day-concurrency:4}") int dayConcurrency,
+                                // kun ichidagi ochiq sahifalar; haqiqiy parallellikni hsCodeApiLimiter belgilaydi
+                                @Value("${app.backfill.page-concurrency:16}") int pageConcurrency,
+                                @Value("${app.backfill.max-days:366}") int maxDays) {
+        this.tradeDataService = tradeDataService;
+        this.tradeImportPipeline = tradeImportPipeline;
+        this.backfillDayRepository = backfillDayRepository;
+        this.tradeDataPartitionManager = tradeDataPartitionManager;
+        this.meterRegistry = meterRegistry;
+        this.dayConcurrency = dayConcurrency;
+        this.pageConcurrency = pageConcurrency;
+        this.maxDays = maxDays;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+
+        if (!args.containsOption("backfill-from")) {
+            return;
+        }
+
+        LocalDate from = LocalDate.parse(args.getOptionValues("backfill-from").get(0));
+        LocalDate to = args.containsOption("backfill-to")
+                ? LocalDate.parse(args.getOptionValues("backfill-to").get(0))
+                : LocalDate.now();
+
+        backfill(from, to, args.containsOption("backfill-force")).block();
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * @param force true → DONE kunlar ham qayta sinxronlanadi
+     * @return yakundagi kun holatlari; boshqa backfill ishlayotgan bo'lsa {@link IllegalStateException}
+     */
+    public Mono<List<BackfillDay>> backfill(LocalDate from, LocalDate to, boolean force) {
+
+        validate(from, to);
+
+        return Mono.defer(() -> {
+            if (!running.compareAndSet(false, true)) {
+                return Mono.error(new IllegalStateException("Backfill allaqachon ishlamoqda"));
+            }
+
+            long started = System.nanoTime();
+            // qo'shni kunlar bir xil deklaratsiyalarni qaytarsa ham DB ga bir marta boradi
+            DedupWindow window = tradeImportPipeline.openWindow();
+
+            return Mono.fromCallable(() -> prepare(from, to, force))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .flatMapMany(Flux::fromIterable)
+                    .flatMap(day -> runDay(day, window), dayConcurrency)
+                    .then(Mono.fromRunnable(() -> tradeImportPipeline.logWindowStats(window)))
+                    .then(days(from, to))
+                    .doOnSuccess(days -> log.info("✅ Backfill yakunlandi → {} → {}, DONE={}/{}, {} s",
+                            from, to,
+                            days.stream().filter(d -> d.status() == DayStatus.DONE).count(),
+                            days.size(), Duration.ofNanos(System.nanoTime() - started).toSeconds()))
+                    .doOnError(e -> log.error("❌ Backfill xatosi → {} → {}", from, to, e))
+                    // natija subscriber ga yetguncha bayroq tushirilgan bo'lishi kerak
+                    .doOnTerminate(() -> running.set(false))
+                    .doOnCancel(() -> running.set(false));
+        });
+    }
+
+    public Mono<List<BackfillDay>> days(LocalDate from, LocalDate to) {
+        validate(from, to);
+        return Mono.fromCallable(() -> backfillDayRepository.findDays(from, to))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private List<LocalDate> prepare(LocalDate from, LocalDate to, boolean force) {
+
+        tradeDataPartitionManager.ensureRange(from, to);
+
+        int added = backfillDayRepository.ensureDays(from, to);
+        int reopened = force ? backfillDayRepository.reopen(from, to) : 0;
+        List<LocalDate> open = backfillDayRepository.findOpen(from, to);
+
+        log.info("🗓 Backfill boshlandi → {} → {}, yangi kun={}, qayta ochildi={}, navbatda={}, day-concurrency={}",
+                from, to, added, reopened, open.size(), dayConcurrency);
+        return open;
+    }
+
+    /**
+     * Kun xatosi oqimni to'xtatmaydi – FAILED bo'lib qoladi va keyingi backfill uni qayta oladi
+     */
+    private Mono<Void> runDay(LocalDate day, DedupWindow window) {
+
+        return Mono.fromRunnable(() -> backfillDayRepository.markRunning(day))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then(tradeDataService.syncDay(day, pageConcurrency, window))
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(rows -> {
+                    backfillDayRepository.markDone(day, rows);
+                    meterRegistry.counter("backfill.days", "result", "done").increment();
+                    log.info("📅 Backfill kun tayyor → {}, qator={}", day, rows);
+                })
+                .onErrorResume(e -> Mono.fromRunnable(() -> {
+                            backfillDayRepository.markFailed(day, String.valueOf(e.getMessage()));
+                            meterRegistry.counter("backfill.days", "result", "failed").increment();
+                            log.error("❌ Backfill kun xatosi → {}", day, e);
+                        })
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .then(Mono.empty()))
+                .then();
+    }
+
+    private void validate(LocalDate from, LocalDate to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new IllegalArgumentException("Noto‘g‘ri oraliq → " + from + " → " + to);
+        }
+        if (from.plusDays(maxDays).isBefore(to.plusDays(1))) {
+            throw new IllegalArgumentException("Oraliq " + maxDays + " kundan oshmasligi kerak");
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package org.example.importexportservice.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.importexportservice.dto.TradeStatisticDTO;
+import org.example.importexportservice.entity.TradeData;
+import org.example.importexportservice.enums.TradeType;
+import org.example.importexportservice.hash.IdentityKey;
+import org.example.importexportservice.mapper.TradeStatisticsMapper;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO → entity, trade type, batch ichidagi identity duplicate'larni kesish va uniqueHash.
+ * Har bir deklaratsiya qatori shu yerdan o'tadi (JMH benchmark ham shuni o'lchaydi).
+ * Sanasi yo'q (yoki parse bo'lmagan) qator tashlanadi: declaration_date partition kaliti va NOT NULL –
+ * bitta shunday qator butun batch yozuvini (upsert, flush, MERGE) yiqitardi.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class TradeBatchPreparer {
+
+    private final TradeStatisticsMapper tradeStatisticsMapper;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Metrikalar: trade.batch.map (mapping + dedup) va trade.batch.hash (uniqueHash), batch bo'yicha;
+     * tashlangan sanasiz qatorlar → trade.rows{result=no_date}
+     */
+    public Collection<TradeData> prepare(List<TradeStatisticDTO> dtos) {
+
+        long started = System.nanoTime();
+        Map<IdentityKey, TradeData> batchMap = new LinkedHashMap<>();
+        int noDate = 0;
+
+        for (TradeStatisticDTO dto : dtos) {
+            if (dto.getCompanyInn() == null || dto.getCompanyInn().isBlank()) {
+                continue;
+            }
+
+            TradeData entity = tradeStatisticsMapper.toEntity(dto);
+            if (entity.getDeclarationDate() == null) {
+                noDate++;
+                log.debug("⚠️ Sanasiz qator tashlandi → inn={}, hs={}, g54D={}",
+                        dto.getCompanyInn(), dto.getHsCode(), dto.getDeclarationDate());
+                continue;
+            }
+            entity.setCompanyInn(dto.getCompanyInn());
+
+            if(entity.getCompanyInn().length() == 9){
+                entity.setTradeType(TradeType.LEGAL);
+            } else if (entity.getCompanyInn().length() == 14) {
+                entity.setTradeType(TradeType.INDIVIDUAL);
+
+            }
+
+            // ⚠️ batch ichidagi duplicate’ni kesamiz
+            batchMap.putIfAbsent(entity.identityKey(), entity);
+
+        }
+
+        if (noDate > 0) {
+            meterRegistry.counter("trade.rows", "result", "no_date").increment(noDate);
+            log.warn("⚠️ Batchda sanasiz qatorlar tashlandi → {}", noDate);
+        }
+
+        int batchDeduplicated = dtos.size() - noDate - batchMap.size();
+        log.debug("♻️ Batch ichida kesildi: {}", batchDeduplicated);
+
+        long mapped = System.nanoTime();
+        for (TradeData entity : batchMap.values()) {
+            entity.setUniqueHash(entity.calculateHash());
+        }
+
+        meterRegistry.timer("trade.batch.map").record(mapped - started, TimeUnit.NANOSECONDS);
+        meterRegistry.timer("trade.batch.hash").record(System.nanoTime() - mapped, TimeUnit.NANOSECONDS);
+
+        return batchMap.values();
+    }
+}
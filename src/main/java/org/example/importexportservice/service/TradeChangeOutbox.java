@@ -0,0 +1,86 @@
+package org.example.importexportservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.importexportservice.dto.TradeChangeEvent;
+import org.example.importexportservice.dto.TradeValueChange;
+import org.example.importexportservice.repository.TradeChangeOutboxRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * trade_data o'zgarishlari uchun CDC outbox.
+ * <p>
+ * Writer'lar rollup bilan birga o'z tranzaksiyasida {@link #record} ni chaqiradi – hodisa faqat
+ * qator commit bo'lsa ko'rinadi. COPY MERGE hodisalarni shu MERGE statement ichida yozadi.
+ * Iste'molchi oxirgi o'qigan hodisaning (txid, seq) kursorini saqlaydi va {@link #findAfter}/{@link #stream} bilan faqat
+ * tunggi delta'ni oladi. Eski hodisalar app.cdc.retention dan keyin o'chiriladi.
+ */
+@Service
+@Slf4j
+public class TradeChangeOutbox {
+
+    private final TradeChangeOutboxRepository tradeChangeOutboxRepository;
+    private final boolean enabled;
+    private final int pageSize;
+    private final Duration retention;
+
+    public TradeChangeOutbox(TradeChangeOutboxRepository tradeChangeOutboxRepository,
+                             @Value("${app.cdc.enabled:true}") boolean enabled,
+                             @Value("${app.cdc.read.page-size:1000}") int pageSize,
+                             @Value("${app.cdc.retention:7d}") Duration retention) {
+        this.tradeChangeOutboxRepository = tradeChangeOutboxRepository;
+        this.enabled = enabled;
+        this.pageSize = pageSize;
+        this.retention = retention;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void record(Collection<TradeValueChange> changes) {
+        if (enabled && !changes.isEmpty()) {
+            tradeChangeOutboxRepository.append(changes);
+        }
+    }
+
+    public Mono<List<TradeChangeEvent>> findAfter(long afterTxid, long afterSeq, int limit) {
+        return Mono.fromCallable(() -> tradeChangeOutboxRepository.findAfter(afterTxid, afterSeq, limit))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * (afterTxid, afterSeq) dan keyingi barcha hodisalar, pageSize lik keyset sahifalar bilan:
+     * keyingi sahifa faqat oldingisi iste'mol qilingandan keyin o'qiladi, oxirgi to'liq bo'lmagan sahifada tugaydi
+     */
+    public Flux<TradeChangeEvent> stream(long afterTxid, long afterSeq) {
+        return findAfter(afterTxid, afterSeq, pageSize)
+                .expand(page -> {
+                    if (page.size() < pageSize) {
+                        return Mono.empty();
+                    }
+                    TradeChangeEvent last = page.get(page.size() - 1);
+                    return findAfter(last.txid(), last.seq(), pageSize);
+                })
+                .concatMapIterable(page -> page);
+    }
+
+    @Scheduled(cron = "${app.cdc.purge-cron:0 0 3 * * *}")
+    public void purge() {
+
+        if (!enabled) {
+            return;
+        }
+
+        int deleted = tradeChangeOutboxRepository.purgeOlderThan(retention);
+        log.info("🧹 CDC outbox tozalandi → {} hodisa ({} dan eski)", deleted, retention);
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.importexportservice.service;
+
+import org.example.importexportservice.dto.BatchWriteResult;
+import org.example.importexportservice.entity.TradeData;
+import org.example.importexportservice.enums.WriteMode;
+
+import java.util.Collection;
+
+public interface TradeDataBatchWriter {
+
+    WriteMode mode();
+
+    /**
+     * @param rows batch ichida identity bo'yicha takrorlanmagan qatorlar
+     */
+    BatchWriteResult write(Collection<TradeData> rows);
+}
@@ -0,0 +1,182 @@
+package org.example.importexportservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.importexportservice.repository.TradeDataPartitionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * trade_data oylik partitionlarini yuritadi:
+ * <ul>
+ *     <li>joriy oy atrofidagi oylar uchun partitionlar oldindan yaratiladi</li>
+ *     <li>default partitionga tushgan tarixiy oylar o'z partitioniga ko'chiriladi</li>
+ *     <li>retention-months dan eski partitionlar detach qilinib archive sxemasiga o'tadi</li>
+ * </ul>
+ * Arxivlangan oy trade_data da qayta yaratilmaydi: aks holda keyingi arxivlashda SET SCHEMA
+ * bir xil nomli jadvalga urilib, ishga tushish (ApplicationRunner) yiqilardi.
+ */
+@Service
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+@Slf4j
+public class TradeDataPartitionManager implements ApplicationRunner {
+
+    private static final String PREFIX = "trade_data_";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final TradeDataPartitionRepository tradeDataPartitionRepository;
+    private final boolean enabled;
+    private final int monthsBehind;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final String archiveSchema;
+
+    public TradeDataPartitionManager(TradeDataPartitionRepository tradeDataPartitionRepository,
+                                     @Value("${app.partition.enabled:true}") boolean enabled,
+                                     @Value("${app.partition.months-behind:2}") int monthsBehind,
+                                     @Value("${app.partition.months-ahead:3}") int monthsAhead,
+                                     // 0 → hech narsa arxivlanmaydi
+                                     @Value("${app.partition.retention-months:0}") int retentionMonths,
+                                     @Value("${app.partition.archive-schema:trade_archive}") String archiveSchema) {
+        if (retentionMonths > 0 && retentionMonths <= monthsBehind) {
+            throw new IllegalArgumentException("app.partition.retention-months (" + retentionMonths
+                    + ") months-behind (" + monthsBehind + ") dan katta bo'lishi kerak – "
+                    + "aks holda arxivlangan oylar qayta yaratiladi");
+        }
+        this.tradeDataPartitionRepository = tradeDataPartitionRepository;
+        this.enabled = enabled;
+        this.monthsBehind = monthsBehind;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.archiveSchema = archiveSchema;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        maintain();
+    }
+
+    @Scheduled(cron = "${app.partition.maintenance-cron:0 30 2 * * *}")
+    public void maintain() {
+
+        if (!enabled || !tradeDataPartitionRepository.isPartitioned()) {
+            return;
+        }
+
+        YearMonth current = YearMonth.now();
+        Set<YearMonth> archived = archivedMonths();
+
+        Set<LocalDate> months = new LinkedHashSet<>();
+        for (int i = -monthsBehind; i <= monthsAhead; i++) {
+            months.add(current.plusMonths(i).atDay(1));
+        }
+        months.addAll(tradeDataPartitionRepository.findDefaultPartitionMonths());
+
+        int created = 0;
+        for (LocalDate month : months) {
+            if (archived.contains(YearMonth.from(month))) {
+                log.warn("⚠️ Oy arxivlangan, partition yaratilmaydi → {}.{}{} (qatorlar default partitionda qoladi)",
+                        archiveSchema, PREFIX, month.format(SUFFIX));
+                continue;
+            }
+            if (tradeDataPartitionRepository.ensurePartition(month)) {
+                created++;
+                log.info("🧱 Partition yaratildi → {}{}", PREFIX, month.format(SUFFIX));
+            }
+        }
+
+        int archivedNow = retentionMonths > 0
+                ? archiveOlderThan(current.minusMonths(retentionMonths), archived)
+                : 0;
+
+        log.info("🧱 Partition maintenance → yangi={}, arxivlandi={}", created, archivedNow);
+    }
+
+    /**
+     * Backfill oralig'i oldindan partitionlanadi, aks holda eski oylar default partitionga tushadi.
+     * Arxivlangan oyga backfill rad etiladi – avval partition archive sxemasidan qaytarilishi kerak.
+     */
+    public void ensureRange(LocalDate from, LocalDate to) {
+
+        if (!enabled || !tradeDataPartitionRepository.isPartitioned()) {
+            return;
+        }
+
+        Set<YearMonth> archived = archivedMonths();
+        List<YearMonth> months = new ArrayList<>();
+        for (YearMonth month = YearMonth.from(from); !month.isAfter(YearMonth.from(to)); month = month.plusMonths(1)) {
+            months.add(month);
+        }
+
+        List<YearMonth> refused = months.stream().filter(archived::contains).toList();
+        if (!refused.isEmpty()) {
+            throw new IllegalArgumentException("Backfill oralig'ida arxivlangan oylar bor → " + refused
+                    + " (" + archiveSchema + " sxemasida); ularni qayta yuklashdan oldin partitionni qaytaring");
+        }
+
+        for (YearMonth month : months) {
+            if (tradeDataPartitionRepository.ensurePartition(month.atDay(1))) {
+                log.info("🧱 Partition yaratildi → {}{}", PREFIX, month.format(SUFFIX));
+            }
+        }
+    }
+
+    private int archiveOlderThan(YearMonth cutoff, Set<YearMonth> archived) {
+
+        int count = 0;
+        for (String partition : tradeDataPartitionRepository.findPartitionNames()) {
+            YearMonth month = monthOf(partition);
+            if (month == null || !month.isBefore(cutoff)) {
+                continue;
+            }
+            if (archived.contains(month)) {
+                // oldin qayta yaratilib qolgan oy: SET SCHEMA nom to'qnashuvi bilan yiqiladi
+                log.error("❌ Partition arxivlanmadi, {} da shu nomli jadval bor → {}", archiveSchema, partition);
+                continue;
+            }
+            tradeDataPartitionRepository.detachToArchive(partition, archiveSchema);
+            log.info("📦 Partition arxivlandi → {}.{}", archiveSchema, partition);
+            count++;
+        }
+        return count;
+    }
+
+    private Set<YearMonth> archivedMonths() {
+        Set<YearMonth> months = new HashSet<>();
+        for (String partition : tradeDataPartitionRepository.findArchivedPartitionNames(archiveSchema)) {
+            YearMonth month = monthOf(partition);
+            if (month != null) {
+                months.add(month);
+            }
+        }
+        return months;
+    }
+
+    /**
+     * trade_data_2025_03 → 2025-03; default va boshqa nomlar → null
+     */
+    static YearMonth monthOf(String partition) {
+        if (!partition.startsWith(PREFIX)) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(partition.substring(PREFIX.length()), SUFFIX);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
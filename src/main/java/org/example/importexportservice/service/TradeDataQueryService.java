@@ -0,0 +1,86 @@
+package org.example.importexportservice.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.importexportservice.dto.KeysetPage;
+import org.example.importexportservice.dto.TradeDataQuery;
+import org.example.importexportservice.dto.TradeDataView;
+import org.example.importexportservice.entity.Organization;
+import org.example.importexportservice.repository.OrganizationRepository;
+import org.example.importexportservice.repository.TradeDataQueryRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Read API: JDBC bloklovchi, shuning uchun har so'rov boundedElastic da bajariladi.
+ * Kursor – oxirgi qatorning (declaration_date, id) juftligi, base64url ko'rinishida.
+ */
+@Service
+@RequiredArgsConstructor
+public class TradeDataQueryService {
+
+    private final TradeDataQueryRepository tradeDataQueryRepository;
+    private final OrganizationRepository organizationRepository;
+
+    public Mono<KeysetPage<TradeDataView>> findPage(TradeDataQuery filter, String after, int limit) {
+
+        TradeDataQuery query = withCursor(filter, after);
+
+        return Mono.fromCallable(() -> {
+                    // bitta ortiqcha qator → keyingi sahifa bor-yo'qligi
+                    List<TradeDataView> rows = tradeDataQueryRepository.findPage(query, limit + 1);
+                    if (rows.size() <= limit) {
+                        return new KeysetPage<>(rows, null);
+                    }
+                    List<TradeDataView> items = rows.subList(0, limit);
+                    return new KeysetPage<>(List.copyOf(items), encodeCursor(items.get(limit - 1)));
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Backpressure bilan oqim: cursor va uning so'rovlari bitta boundedElastic worker'da
+     */
+    public Flux<TradeDataView> export(TradeDataQuery filter) {
+        return tradeDataQueryRepository.stream(filter)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<Organization> findOrganization(String inn) {
+        return Mono.fromCallable(() -> organizationRepository.findById(inn))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(Mono::justOrEmpty)
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Organization topilmadi")));
+    }
+
+    static String encodeCursor(TradeDataView last) {
+        String raw = last.declarationDate() + "_" + last.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static TradeDataQuery withCursor(TradeDataQuery filter, String after) {
+
+        if (after == null || after.isBlank()) {
+            return filter;
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('_');
+            return new TradeDataQuery(filter.companyInn(), filter.hsPrefix(), filter.from(), filter.to(),
+                    filter.operationType(),
+                    LocalDate.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Noto‘g‘ri kursor");
+        }
+    }
+}
@@ -1,6 +1,11 @@
 package org.example.importexportservice.service;
 
 
+import org.example.importexportservice.cache.DedupWindow;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
     public interface TradeDataService {
 
     void importTradeStatistics();
@@ -8,4 +13,12 @@ package org.example.importexportservice.service;
     void enrichMissingOrganizations();
 
     void updateTradeStatistics();
+
+    /**
+     * Bitta kunni API dan to'liq qayta o'qib DB ga yozadi (update/backfill ish birligi)
+     *
+     * @param window run bo'yicha umumiy dedup oynasi (bir run'dagi barcha kunlar uchun bitta)
+     * @return API dan kelgan qatorlar soni; biror sahifa yuklanmasa yoki yozilmasa xato bilan tugaydi
+     */
+    Mono<Long> syncDay(LocalDate reqDate, int pageConcurrency, DedupWindow window);
 }
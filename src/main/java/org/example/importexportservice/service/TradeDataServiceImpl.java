@@ -2,97 +2,101 @@ package org.example.importexportservice.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.importexportservice.cache.DedupWindow;
+import org.example.importexportservice.cache.TradeDataHashIndex;
+import org.example.importexportservice.dto.ResumePoint;
+import org.example.importexportservice.dto.TradeStatPage;
 import org.example.importexportservice.dto.TradeStatisticDTO;
-import org.example.importexportservice.entity.Organization;
-import org.example.importexportservice.entity.TradeData;
-import org.example.importexportservice.enums.TradeType;
-import org.example.importexportservice.mapper.TradeStatisticsMapper;
-import org.example.importexportservice.repository.OrganizationRepository;
-import org.example.importexportservice.repository.TradeDataRepository;
-import org.example.importexportservice.token.TokenHolder;
+import org.example.importexportservice.enums.WriteMode;
+import org.example.importexportservice.repository.ImportCheckpointRepository;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.publisher.SynchronousSink;
 import reactor.core.scheduler.Schedulers;
-import reactor.util.retry.Retry;
 
-import java.time.Duration;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class TradeDataServiceImpl implements TradeDataService {
 
-    private final WebClient webClient;
-    private final TokenHolder tokenHolder;
-    private final TradeDataRepository tradeDataRepository;
-    private final OrganizationRepository organizationRepository;
-    private final TradeStatisticsMapper tradeStatisticsMapper;
-    private final BusinessRegService businessRegService;
+    private final TradePagePlanner tradePagePlanner;
+    private final TradeImportPipeline tradeImportPipeline;
+    private final OrganizationEnrichmentService organizationEnrichmentService;
+    private final TradeRollupService tradeRollupService;
+    private final TradeDataCopyLoader tradeDataCopyLoader;
+    private final TradeDataHashIndex tradeDataHashIndex;
+    private final ImportCheckpointRepository importCheckpointRepository;
+    private final TradeSliceDigests tradeSliceDigests;
+    private final TradeSnapshotDiff tradeSnapshotDiff;
 
-    @Value("${app.api.endpoints.hscode}")
-    private String hsFullUrl;
+    @Value("${app.import.write-mode:JPA}")
+    private WriteMode writeMode;
 
-    @Value("${app.api.hscode.page-size}")
-    private int pageSize;
+    // bir vaqtda ochiq sahifalar chegarasi; haqiqiy parallellikni hsCodeApiLimiter belgilaydi
+    @Value("${app.api.hscode.import-concurrency:64}")
+    private int importConcurrency;
 
-    private static final String SENDER_PIN = "54646546541234";
+    @Value("${app.api.hscode.update-concurrency:32}")
+    private int updateConcurrency;
+
+    @Value("${app.import.checkpoint.enabled:true}")
+    private boolean checkpointEnabled;
 
+    // true → shu sana checkpointlari o'chiriladi va import 1-sahifadan boshlanadi
+    @Value("${app.import.checkpoint.reset:false}")
+    private boolean checkpointReset;
 
-    private static final int BUFFER_SIZE = 500;
-    private static final int MAX_RETRIES = 3;
+    @Value("${app.import.checkpoint.max-attempts:5}")
+    private int checkpointMaxAttempts;
 
+    private static final String SENDER_PIN = "54646546541234";
+
+    /**
+     * Tashqi tranzaksiya yo'q: har batch pipeline'ning persist bosqichida o'z tranzaksiyasida yoziladi
+     */
     @Override
-    @Transactional
     public void importTradeStatistics() {
 
         LocalDate reqDate = LocalDate.now();
-        log.info("🚀 Import boshlandi → {}", reqDate);
+        boolean copyMode = writeMode == WriteMode.COPY;
+        log.info("🚀 Import boshlandi → {} ({})", reqDate, writeMode);
+
+        // sahifalar bir-birini qoplasa ham bir xil qator DB ga bir marta boradi
+        DedupWindow window = tradeImportPipeline.openWindow();
+
+        Mono<Void> pages;
+        if (copyMode) {
+            tradeDataCopyLoader.begin();
+            pages = streamToStaging(reqDate, window);
+        } else if (checkpointEnabled) {
+            pages = importWithCheckpoints(reqDate, window);
+        } else {
+            pages = tradeImportPipeline.persist(window,
+                    tradePagePlanner.streamAllPages(reqDate, SENDER_PIN, importConcurrency));
+        }
 
-        Flux.generate(
-                        () -> 1,
-                        (Integer page, SynchronousSink<Integer> sink) -> {
-                            sink.next(page);
-                            return page + 1;
+        pages
+                .doOnSuccess(v -> {
+                    if (copyMode) {
+                        tradeDataCopyLoader.finish();
+                        // MERGE natijasi indeksga qatorma-qator qaytmaydi → qayta yuklaymiz
+                        if (tradeDataHashIndex.isEnabled()) {
+                            tradeDataHashIndex.reload();
                         }
-                )
-                .flatMap(page ->
-                                fetchPageReactive(page, reqDate, SENDER_PIN)
-                                        .doOnSubscribe(s ->
-                                                log.debug("📥 Sahifa so‘raldi → page={}", page))
-                                        .doOnNext(r ->
-                                                log.debug("📄 Sahifa keldi → page={}, size={}",
-                                                        page,
-                                                        r.getTradeStatistics().size()))
-                        , 10
-                )
-
-                .takeUntil(r -> isEmpty(r.getTradeStatistics()))
-
-                .filter(r -> !isEmpty(r.getTradeStatistics()))
-
-                .flatMapIterable(TradeStatisticDTO.TradeStatRespDto::getTradeStatistics)
-
-                .buffer(BUFFER_SIZE)
-
-                .flatMap(batch ->
-                        Mono.fromRunnable(() -> {
-                                    log.info("💾 Batch saqlanmoqda → size={}", batch.size());
-                                    processAndSaveBuffer(batch);
-                                })
-                                .subscribeOn(Schedulers.boundedElastic())
-                )
-
-                .doOnComplete(() -> {
+                        // MERGE delta bermaydi → agregat to'liq qayta quriladi, digestlar keyin hisoblanadi
+                        tradeRollupService.rebuild();
+                        tradeSliceDigests.clear();
+                    }
+                    logHashIndexStats();
+                    tradeImportPipeline.logWindowStats(window);
                     log.info("📌 Trade import tugadi, organization enrich boshlanmoqda...");
                     enrichMissingOrganizations();
                     log.info("✅ Import to‘liq yakunlandi");
@@ -101,91 +105,81 @@ public class TradeDataServiceImpl implements TradeDataService {
                 .doOnError(e -> log.error("❌ Import jarayonida xato", e))
 
                 // 8️⃣ Oqimni yakunigacha kutish
-                .blockLast();
+                .block();
     }
 
-    @Transactional
-    protected void processAndSaveBuffer(List<TradeStatisticDTO> dtos) {
-
-        int received = dtos.size();
-        int inserted = 0;
-        int updated = 0;
-        int skipped = 0;
-
-
-        Map<String, TradeData> batchMap = new LinkedHashMap<>();
-
-        for (TradeStatisticDTO dto : dtos) {
-            if (dto.getCompanyInn() == null || dto.getCompanyInn().isBlank()) {
-                continue;
-            }
-
-            TradeData entity = tradeStatisticsMapper.toEntity(dto);
-            entity.setCompanyInn(dto.getCompanyInn());
-
-            if(entity.getCompanyInn().length() == 9){
-                entity.setTradeType(TradeType.LEGAL);
-            } else if (entity.getCompanyInn().length() == 14) {
-                entity.setTradeType(TradeType.INDIVIDUAL);
-
-            }
-
-            // identity key (hash emas!)
-            String identityKey = entity.getCompanyInn() + "|" +
-                    entity.getHsCode() + "|" +
-                    entity.getDeclarationDate() + "|" +
-                    entity.getTradeOperationType();
-
-            // ⚠️ batch ichidagi duplicate’ni kesamiz
-            batchMap.putIfAbsent(identityKey, entity);
-
-        }
-
-        int batchDeduplicated = dtos.size() - batchMap.size();
-        log.debug("♻️ Batch ichida kesildi: {}", batchDeduplicated);
-
-        for (TradeData entity : batchMap.values()) {
-
-            List<TradeData> existings =
-                    tradeDataRepository
-                            .findByCompanyInnAndHsCodeAndDeclarationDateAndTradeOperationType(
-                                    entity.getCompanyInn(),
-                                    entity.getHsCode(),
-                                    entity.getDeclarationDate(),
-                                    entity.getTradeOperationType()
-                            );
-
-            if (existings.isEmpty()) {
-                entity.setUniqueHash(entity.calculateHash());
-                tradeDataRepository.save(entity);
-                inserted++;
-                continue;
-            }
-
-            TradeData existing = existings.get(0);
-
-            String newHash = entity.calculateHash();
-
-            if (newHash.equals(existing.getUniqueHash())) {
-                skipped++;
-                continue;
-            }
+    /**
+     * COPY backfill: staging UNLOGGED va har ishga tushishda tozalanadi,
+     * shuning uchun bu rejimda sahifa checkpointlari yuritilmaydi
+     */
+    private Mono<Void> streamToStaging(LocalDate reqDate, DedupWindow window) {
+        return tradeImportPipeline.copyToStaging(window,
+                tradePagePlanner.streamAllPages(reqDate, SENDER_PIN, importConcurrency));
+    }
 
-            existing.setGoodsValue(entity.getGoodsValue());
-            existing.setCountryCode(entity.getCountryCode());
-            existing.setUniqueHash(newHash);
+    /**
+     * Sahifa DB ga to'liq yozilgach checkpoint qilinadi. Qayta ishga tushganda PERSISTED sahifalar
+     * so'ralmaydi; yuklanmagan sahifalar FAILED bo'lib qoladi va oxirida retry navbatidan qayta o'qiladi.
+     */
+    private Mono<Void> importWithCheckpoints(LocalDate reqDate, DedupWindow window) {
+
+        return Mono.fromCallable(() -> {
+                    if (checkpointReset) {
+                        int removed = importCheckpointRepository.reset(reqDate);
+                        log.info("🧹 Checkpointlar tozalandi → date={}, {} ta", reqDate, removed);
+                    }
+                    return importCheckpointRepository.resumePoint(reqDate);
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(resume -> {
+                    if (!resume.completedPages().isEmpty()) {
+                        log.info("⏯ Import davom ettiriladi → date={}, tugagan sahifa={}, qator={}",
+                                reqDate, resume.completedPages().size(), resume.completedRows());
+                    }
+                    return tradePagePlanner.forEachPage(reqDate, SENDER_PIN, importConcurrency, resume,
+                            (page, rows) -> persistPage(reqDate, page, rows, window));
+                })
+                .then(drainFailedPages(window));
+    }
 
-            tradeDataRepository.save(existing);
-            updated++;
-        }
+    /**
+     * Retry navbati: FAILED sahifalar (oldingi sanalarniki ham) max-attempts gacha qayta o'qiladi
+     */
+    private Mono<Void> drainFailedPages(DedupWindow window) {
+
+        return Mono.fromCallable(() -> importCheckpointRepository.findRetryable(checkpointMaxAttempts))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany(Flux::fromIterable)
+                .concatMap(failed -> {
+                    LocalDate date = failed.getKey();
+                    TradeStatPage meta = new TradeStatPage(failed.getValue());
+                    log.info("🔁 Retry navbatidan sahifa → date={}, page={}", date, meta.getPage());
+                    return persistPage(date, meta, tradePagePlanner.fetchPage(date, SENDER_PIN, meta), window);
+                })
+                .then();
+    }
 
-        log.info("""
-        📊 IMPORT / UPDATE STATISTIKASI:
-        📥 Kelgan DTO: {}
-        🆕 Yangi: {}
-        🔄 Update: {}
-        ⏭ Skip: {}
-        """, received, inserted, updated, skipped);
+    private Mono<Void> persistPage(LocalDate reqDate, TradeStatPage page, Flux<TradeStatisticDTO> rows,
+                                   DedupWindow window) {
+
+        return tradeImportPipeline.persist(window, rows)
+                .then(Mono.fromRunnable(() -> {
+                    if (page.isFailed()) {
+                        importCheckpointRepository.markFailed(reqDate, page.getPage(),
+                                page.getErrorCode() != null ? page.getErrorCode() : "fetch failed");
+                    } else {
+                        importCheckpointRepository.markPersisted(reqDate, page.getPage(), page.getReceived(),
+                                page.getTotalPages(), page.getTotalElements());
+                    }
+                }))
+                .onErrorResume(e -> {
+                    log.error("❌ Sahifa yozilmadi → date={}, page={}", reqDate, page.getPage(), e);
+                    page.setFailed(true);
+                    return Mono.fromRunnable(() ->
+                            importCheckpointRepository.markFailed(reqDate, page.getPage(), String.valueOf(e)));
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
     }
 
     @Override
@@ -194,37 +188,30 @@ public class TradeDataServiceImpl implements TradeDataService {
         LocalDate fromDate = LocalDate.now().minusDays(1);
         LocalDate toDate = LocalDate.now();
 
-        log.info("🔄 Trade uchun UPDATE boshlandi → {} → {}", fromDate, toDate);
+        boolean snapshotDiff = tradeSliceDigests.isEnabled();
+        log.info("🔄 Trade uchun UPDATE boshlandi → {} → {}{}", fromDate, toDate,
+                snapshotDiff ? " (snapshot diff)" : "");
+
+        // kecha va bugun so'rovlari bir xil deklaratsiyalarni qaytarishi mumkin → umumiy oyna
+        DedupWindow window = tradeImportPipeline.openWindow();
 
         Flux.fromStream(fromDate.datesUntil(toDate.plusDays(1)))
-                .concatMap(updateDate -> {
+                .flatMap(updateDate -> {
                     log.info("📅 UPDATE sana → {}", updateDate);
-                    return Flux.generate(
-                                    () -> 1,
-                                    (Integer page, SynchronousSink<Integer> sink) -> {
-                                        sink.next(page);
-                                        return page + 1;
-                                    }
-                            )
-                            .flatMap(page -> fetchPageReactive(page,updateDate,SENDER_PIN),
-                                    5)
-                            .takeUntil(r -> isEmpty(r.getTradeStatistics()))
-                            .filter( r -> !isEmpty(r.getTradeStatistics()))
-                            .flatMapIterable(TradeStatisticDTO.TradeStatRespDto::getTradeStatistics)
-                            .buffer(BUFFER_SIZE)
-                            .flatMap(batch ->
-                                    Mono.fromRunnable(() -> {
-                                                log.info("🔄 UPDATE batch → date={}, size={}",
-                                                        updateDate, batch.size());
-                                                processAndSaveBuffer(batch);
-
-                                            })
-                                            .subscribeOn(Schedulers.boundedElastic())
-                            );
+                    Mono<Long> day = snapshotDiff
+                            ? syncDayByDigest(updateDate, window)
+                            : syncDay(updateDate, updateConcurrency, window);
+                    return day
+                            .onErrorResume(e -> {
+                                log.error("❌ UPDATE sana to‘liq yuklanmadi → {}", updateDate, e);
+                                return Mono.empty();
+                            });
+                })
+                .doOnComplete(() -> {
+                    logHashIndexStats();
+                    tradeImportPipeline.logWindowStats(window);
+                    log.info("✅ Trade UPDATE yakunlandi → {} → {}", fromDate, toDate);
                 })
-                .doOnComplete(() ->
-                        log.info("✅ Trade UPDATE yakunlandi → {} → {}", fromDate, toDate)
-                )
                 .doOnError(e ->
                         log.error("❌ Trade UPDATE jarayonida xato", e)
                 )
@@ -233,126 +220,55 @@ public class TradeDataServiceImpl implements TradeDataService {
 
     }
 
-
-    private Mono<TradeStatisticDTO.TradeStatRespDto> fetchPageReactive(int page, LocalDate reqDate, String senderPin) {
-        return webClient.get()
-                .uri(uriBuilder -> UriComponentsBuilder.fromUriString(hsFullUrl)
-                        .queryParam("transaction_id", "545645645645645645")
-                        .queryParam("sender_pin", senderPin)
-                        .queryParam("consent", 1)
-                        .queryParam("reqDate", reqDate.toString())
-                        .queryParam("page", page)
-                        .queryParam("size", pageSize)
-                        .build()
-                        .toUri())
-
-                .header(HttpHeaders.AUTHORIZATION, "Bearer " + tokenHolder.getToken())
-                .accept(MediaType.APPLICATION_JSON)
-                .retrieve()
-                .bodyToMono(TradeStatisticDTO.TradeStatRespDto.class)
-
-                .retryWhen(
-                        Retry.backoff(MAX_RETRIES, Duration.ofSeconds(2))
-                                .doBeforeRetry(r ->
-                                        log.warn("🔁 Retry {} → page={}",
-                                                r.totalRetries() + 1, page))
-                )
-                .onErrorResume(e -> {
-                    log.error("❌ Sahifa yuklanmadi → page={}", page, e);
-                    return Mono.empty();
-
-                });
-
-    }
-
     @Override
-    @Transactional
-    public void enrichMissingOrganizations() {
-
-        List<String> inns = tradeDataRepository.findInnsToEnrich();
-
-        Flux.fromIterable(inns)
-                .delayElements(Duration.ofMillis(300))
-                .concatMap(this::enrichSingleOrganization)
-                .doOnComplete(() -> log.info("🏁 Organization enrich tugadi"))
-                .doOnError(e -> log.error("❌ Enrich jarayonida xato", e))
-                .blockLast();
+    public Mono<Long> syncDay(LocalDate reqDate, int pageConcurrency, DedupWindow window) {
+        return syncPages(reqDate, pageConcurrency, rows -> tradeImportPipeline.persist(window, rows), Mono.empty());
     }
 
-
-    private Mono<Void> enrichSingleOrganization(String inn) {
-
-        if (inn.length() == 9) {
-            return businessRegService.getLegalDetails(inn)
-                    .flatMap(dto -> {
-                        Organization org = Organization.builder()
-                                .inn(inn)
-                                .type(TradeType.LEGAL)
-                                .name(dto.getCompanyName())
-                                .shortName(dto.getCompanyShortName())
-                                .region(toStr(dto.getHomeRegion()))
-                                .district(toStr(dto.getCertificateGivenBy()))
-                                .build();
-                        return saveOrUpdateOrganization(org);
-                    })
-                    .onErrorResume(e -> {
-                        log.warn("⚠️ Legal enrich skip → INN={}", inn);
-                        return Mono.empty();
-                    })
-                    .then();
-        }
-
-        if (inn.length() == 14) {
-            return businessRegService.getIndividualDetails(inn)
-                    .flatMap(dto -> {
-                        Organization org = Organization.builder()
-                                .inn(inn)
-                                .type(TradeType.INDIVIDUAL)
-                                .firstName(dto.getFirstname())
-                                .lastName(dto.getLastname())
-                                .region(toStr(dto.getRegistrationRegionSoato()))
-                                .district(toStr(dto.getCertGivenBy()))
-                                .build();
-                        return saveOrUpdateOrganization(org);
-                    })
-                    .onErrorResume(e -> {
-                        log.warn("⚠️ Individual enrich skip → PINFL={}", inn);
-                        return Mono.empty();
-                    })
-                    .then();
-        }
-        log.warn("❗ Noma'lum INN/PINFL uzunligi → {}", inn);
-        return Mono.empty();
+    /**
+     * Snapshot-diff: sahifalar avval to'liq yig'iladi, keyin faqat digest'i farq qilgan bo'laklar yoziladi
+     */
+    private Mono<Long> syncDayByDigest(LocalDate reqDate, DedupWindow window) {
+        Queue<TradeStatisticDTO> fetched = new ConcurrentLinkedQueue<>();
+        return syncPages(reqDate, updateConcurrency, rows -> rows.doOnNext(fetched::add).then(),
+                Mono.defer(() -> tradeSnapshotDiff.reconcile(window, fetched)));
     }
 
-    @Transactional
-    protected Mono<Void> saveOrUpdateOrganization(Organization org) {
-
-        return Mono.fromRunnable(() -> {
-            organizationRepository.findById(org.getInn())
-                    .ifPresentOrElse(existing -> {
-
-                        if (org.getName() != null) existing.setName(org.getName());
-                        if (org.getShortName() != null) existing.setShortName(org.getShortName());
-                        if (org.getFirstName() != null) existing.setFirstName(org.getFirstName());
-                        if (org.getLastName() != null) existing.setLastName(org.getLastName());
-                        if (org.getRegion() != null) existing.setRegion(org.getRegion());
-                        if (org.getDistrict() != null) existing.setDistrict(org.getDistrict());
-                        organizationRepository.save(existing);
-                    }, () -> organizationRepository.save(org));
-        }).subscribeOn(Schedulers.boundedElastic()).then();
-
+    /**
+     * @param afterPages barcha sahifalar {@code sink} dan o'tgach (yuklanmagan sahifa bo'lsa ham) bajariladi
+     */
+    private Mono<Long> syncPages(LocalDate reqDate, int pageConcurrency,
+                                 Function<Flux<TradeStatisticDTO>, Mono<Void>> sink, Mono<Void> afterPages) {
+
+        AtomicLong received = new AtomicLong();
+        Set<Integer> failedPages = ConcurrentHashMap.newKeySet();
+
+        return tradePagePlanner.forEachPage(reqDate, SENDER_PIN, pageConcurrency, ResumePoint.fresh(),
+                        (page, rows) -> sink.apply(rows)
+                                .then(Mono.fromRunnable(() -> {
+                                    received.addAndGet(page.getReceived());
+                                    if (page.isFailed()) {
+                                        failedPages.add(page.getPage());
+                                    }
+                                })))
+                .then(afterPages)
+                .then(Mono.defer(() -> failedPages.isEmpty()
+                        ? Mono.just(received.get())
+                        : Mono.error(new IllegalStateException(
+                                "Yuklanmagan sahifalar → date=" + reqDate + ", pages=" + new TreeSet<>(failedPages)))));
     }
 
-    private String toStr(Object o) {
-        return o == null ? null : String.valueOf(o);
+    @Override
+    public void enrichMissingOrganizations() {
+        organizationEnrichmentService.enrichPending();
     }
 
-    private boolean isEmpty(Collection<?> collection) {
-        return collection == null || collection.isEmpty();
-
+    private void logHashIndexStats() {
+        if (tradeDataHashIndex.isEnabled()) {
+            log.info("🧠 Hash indeks → size={}, hit={}, miss={}",
+                    tradeDataHashIndex.size(), tradeDataHashIndex.getHits(), tradeDataHashIndex.getMisses());
+        }
     }
-
 }
 
 
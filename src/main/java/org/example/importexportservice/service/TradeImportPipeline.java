@@ -0,0 +1,210 @@
+package org.example.importexportservice.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.example.importexportservice.cache.DedupWindow;
+import org.example.importexportservice.cache.TradeDataHashIndex;
+import org.example.importexportservice.dto.BatchWriteResult;
+import org.example.importexportservice.dto.TradeStatisticDTO;
+import org.example.importexportservice.entity.TradeData;
+import org.example.importexportservice.enums.WriteMode;
+import org.example.importexportservice.limiter.PipelineStage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * API qatorlarini DB ga olib boruvchi bosqichli pipeline:
+ * <pre>
+ * fetch (hsCodeApiLimiter) → buffer(500) → map → dedup (run oynasi + hash indeks) → persist
+ * </pre>
+ * Har bosqich {@link PipelineStage}: qat'iy ishchilar soni va oqim boshiga chegaralangan navbat.
+ * Persist to'lsa dedup, map va oxiri sahifa fetch'i to'xtaydi – API DB dan tez bo'lsa ham pool tugamaydi.
+ * Har batch alohida tranzaksiyada yoziladi (writer + rollup delta birga commit/rollback).
+ * <p>
+ * Dedup run bo'yicha ({@link DedupWindow}): oqim ichida batchlar ketma-ket (concatMap) oynaga kiradi,
+ * shuning uchun bir kalitni kutayotgan batch har doim o'zidan oldingi batchni kutadi va DB ishchisini
+ * kutish tugagandan keyin oladi – o'zaro bloklanish bo'lmaydi.
+ */
+@Service
+@Slf4j
+public class TradeImportPipeline {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final TradeBatchPreparer tradeBatchPreparer;
+    private final TradeDataHashIndex tradeDataHashIndex;
+    private final EnrichmentQueue enrichmentQueue;
+    private final List<TradeDataBatchWriter> batchWriters;
+    private final TradeDataCopyLoader tradeDataCopyLoader;
+    private final MeterRegistry meterRegistry;
+    private final PipelineStage mapStage;
+    private final PipelineStage dedupStage;
+    private final PipelineStage persistStage;
+    private final TransactionTemplate transactionTemplate;
+    private final WriteMode writeMode;
+    private final int dedupMaxEntries;
+
+    private record Batch(int received, Collection<TradeData> rows, int indexSkipped,
+                         DedupWindow.Admission admission) {
+    }
+
+    public TradeImportPipeline(TradeBatchPreparer tradeBatchPreparer,
+                               TradeDataHashIndex tradeDataHashIndex,
+                               EnrichmentQueue enrichmentQueue,
+                               List<TradeDataBatchWriter> batchWriters,
+                               TradeDataCopyLoader tradeDataCopyLoader,
+                               MeterRegistry meterRegistry,
+                               PipelineStage mapStage,
+                               PipelineStage dedupStage,
+                               PipelineStage persistStage,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.import.write-mode:JPA}") WriteMode writeMode,
+                               // ~16-32 bayt/kalit; to'lsa yangi kalitlar oynaga qo'shilmaydi
+                               @Value("${app.pipeline.dedup.window-max-entries:2000000}") int dedupMaxEntries) {
+        this.tradeBatchPreparer = tradeBatchPreparer;
+        this.tradeDataHashIndex = tradeDataHashIndex;
+        this.enrichmentQueue = enrichmentQueue;
+        this.batchWriters = batchWriters;
+        this.tradeDataCopyLoader = tradeDataCopyLoader;
+        this.meterRegistry = meterRegistry;
+        this.mapStage = mapStage;
+        this.dedupStage = dedupStage;
+        this.persistStage = persistStage;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.writeMode = writeMode;
+        this.dedupMaxEntries = dedupMaxEntries;
+    }
+
+    /**
+     * Har run (import, update, backfill) o'z oynasini ochadi va barcha sahifa/kunlarga uzatadi
+     */
+    public DedupWindow openWindow() {
+        return new DedupWindow(dedupMaxEntries);
+    }
+
+    public void logWindowStats(DedupWindow window) {
+        log.info("🔁 Run dedup oynasi → takror tashlandi={}, ketma-ketlashtirilgan batch={}, kalit={}, ~{} MB",
+                window.getDropped(), window.getSerialized(), window.size(), window.memoryBytes() >> 20);
+    }
+
+    /**
+     * Qatorlar writer orqali trade_data ga yoziladi (COPY rejimida ham – update oqimi BULK bilan)
+     */
+    public Mono<Void> persist(DedupWindow window, Flux<TradeStatisticDTO> rows) {
+        return run(window, rows, this::write);
+    }
+
+    /**
+     * COPY backfill: qatorlar staging ga, MERGE ni {@link TradeDataCopyLoader#finish()} qiladi
+     */
+    public Mono<Void> copyToStaging(DedupWindow window, Flux<TradeStatisticDTO> rows) {
+        return run(window, rows, this::stage);
+    }
+
+    private Mono<Void> run(DedupWindow window, Flux<TradeStatisticDTO> rows, Consumer<Batch> sink) {
+        return rows
+                .buffer(BATCH_SIZE)
+                .flatMap(dtos -> mapStage.submit(() ->
+                                new Batch(dtos.size(), tradeBatchPreparer.prepare(dtos), 0, null)),
+                        mapStage.getQueueCapacity())
+                .concatMap(batch -> dedupStage.submit(() -> dedup(window, batch)),
+                        dedupStage.getQueueCapacity())
+                .flatMap(batch -> batch.admission().ready()
+                                .then(persistStage.submit(() -> {
+                                    sink.accept(batch);
+                                    return batch;
+                                }))
+                                .doOnSuccess(written -> window.complete(batch.admission(), true))
+                                .doOnError(e -> window.complete(batch.admission(), false))
+                                .doOnCancel(() -> window.complete(batch.admission(), false)),
+                        persistStage.getQueueCapacity())
+                .then();
+    }
+
+    /**
+     * Avval run oynasi (shu run'da ayni shu kontent allaqachon o'tgan), keyin
+     * 🧠 hash indeks (DB dagi bilan bir xil) – ikkala holda ham qator DB ga bormaydi
+     */
+    private Batch dedup(DedupWindow window, Batch batch) {
+        Collection<TradeData> rows = batch.rows();
+
+        int prepared = rows.size();
+        DedupWindow.Admission admission = window.admit(rows);
+        int runDuplicates = prepared - rows.size();
+
+        int admitted = rows.size();
+        rows.removeIf(tradeDataHashIndex::isUnchanged);
+
+        meterRegistry.counter("trade.rows", "result", "run_duplicate").increment(runDuplicates);
+        return new Batch(batch.received(), rows, admitted - rows.size(), admission);
+    }
+
+    private void write(Batch batch) {
+
+        Collection<TradeData> rows = batch.rows();
+
+        long started = System.nanoTime();
+        BatchWriteResult result = rows.isEmpty()
+                ? new BatchWriteResult(0, 0, 0)
+                : transactionTemplate.execute(status -> currentWriter().write(rows));
+        long elapsedNanos = System.nanoTime() - started;
+
+        batchWriteTimer(writeMode).record(Duration.ofNanos(elapsedNanos));
+        meterRegistry.counter("trade.rows", "result", "received").increment(batch.received());
+        meterRegistry.counter("trade.rows", "result", "inserted").increment(result.inserted());
+        meterRegistry.counter("trade.rows", "result", "updated").increment(result.updated());
+        meterRegistry.counter("trade.rows", "result", "skipped").increment(result.skipped());
+        meterRegistry.counter("trade.rows", "result", "index_skipped").increment(batch.indexSkipped());
+
+        // indeks va enrich cache'i faqat commit bo'lgan qatorlarni ko'radi (navbatga writer tranzaksiyasida yozilgan)
+        tradeDataHashIndex.putAll(rows);
+        enrichmentQueue.markSeen(rows);
+
+        log.info("""
+        📊 IMPORT / UPDATE STATISTIKASI ({}, {} ms):
+        📥 Kelgan DTO: {}
+        🆕 Yangi: {}
+        🔄 Update: {}
+        ⏭ Skip: {} (🧠 indeksdan: {})
+        """, writeMode, Duration.ofNanos(elapsedNanos).toMillis(), batch.received(), result.inserted(),
+                result.updated(), result.skipped() + batch.indexSkipped(), batch.indexSkipped());
+    }
+
+    private void stage(Batch batch) {
+        log.info("💾 Batch staging ga → size={}", batch.received());
+        batchWriteTimer(WriteMode.COPY).record(() -> tradeDataCopyLoader.stage(batch.rows()));
+        enrichmentQueue.record(batch.rows());
+        enrichmentQueue.markSeen(batch.rows());
+    }
+
+    /**
+     * COPY faqat to'liq import uchun, update oqimi BULK bilan yoziladi
+     */
+    private TradeDataBatchWriter currentWriter() {
+        WriteMode mode = writeMode == WriteMode.COPY ? WriteMode.BULK : writeMode;
+        return batchWriters.stream()
+                .filter(w -> w.mode() == mode)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Writer topilmadi → " + mode));
+    }
+
+    /**
+     * Bitta batchning DB vaqti (COPY da staging ga COPY vaqti)
+     */
+    private Timer batchWriteTimer(WriteMode mode) {
+        return Timer.builder("trade.batch.write")
+                .tag("mode", mode.name())
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,173 @@
+package org.example.importexportservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.importexportservice.dto.ResumePoint;
+import org.example.importexportservice.dto.TradeStatPage;
+import org.example.importexportservice.dto.TradeStatisticDTO;
+import org.reactivestreams.Publisher;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SynchronousSink;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+
+/**
+ * Bir sana uchun HS-code sahifalarini rejalashtiradi:
+ * 1-sahifa → totalPages → qolgan 2..N sahifalar aniq {@code concurrency} bilan.
+ * Oxirida kelgan qatorlar soni totalElements bilan solishtiriladi – kam bo'lsa log'da ko'rinadi.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class TradePagePlanner {
+
+    private final HsCodeApiClient hsCodeApiClient;
+
+    /**
+     * Sahifa bo'yicha ishlov beruvchi: sahifa qatorlarini to'liq iste'mol qilib, tugaganda complete bo'ladi.
+     * {@code page.isFailed()} qatorlar oqimi tugagandan keyin aniq bo'ladi.
+     */
+    @FunctionalInterface
+    public interface PageHandler {
+        Mono<Void> handle(TradeStatPage page, Flux<TradeStatisticDTO> rows);
+    }
+
+    /**
+     * Barcha sahifalar qatorlari bitta oqimda (sahifa chegaralari ahamiyatsiz bo'lganda)
+     */
+    public Flux<TradeStatisticDTO> streamAllPages(LocalDate reqDate, String senderPin, int concurrency) {
+        return run(reqDate, senderPin, concurrency, ResumePoint.fresh(), (page, rows) -> rows);
+    }
+
+    /**
+     * Har bir sahifa alohida {@code handler} ga beriladi; {@code resume} dagi tugagan sahifalar so'ralmaydi
+     */
+    public Mono<Void> forEachPage(LocalDate reqDate, String senderPin, int concurrency,
+                                  ResumePoint resume, PageHandler handler) {
+        return run(reqDate, senderPin, concurrency, resume, handler::handle).then();
+    }
+
+    /**
+     * Bitta sahifa (retry navbatidagi sahifalar uchun)
+     */
+    public Flux<TradeStatisticDTO> fetchPage(LocalDate reqDate, String senderPin, TradeStatPage meta) {
+        return hsCodeApiClient.fetchPage(meta, reqDate, senderPin)
+                .doOnSubscribe(s -> log.debug("📥 Sahifa so‘raldi → page={}", meta.getPage()))
+                .doOnComplete(() -> log.debug("📄 Sahifa keldi → page={}, size={}",
+                        meta.getPage(), meta.getReceived()));
+    }
+
+    private <R> Flux<R> run(LocalDate reqDate, String senderPin, int concurrency, ResumePoint resume,
+                            BiFunction<TradeStatPage, Flux<TradeStatisticDTO>, Publisher<R>> onPage) {
+        return Flux.defer(() -> {
+
+            TradeStatPage first = new TradeStatPage(1);
+            List<TradeStatPage> pages = new CopyOnWriteArrayList<>();
+
+            Flux<R> head;
+            if (resume.isCompleted(1) && resume.totalPages() != null) {
+                // 1-sahifa oldingi urinishda saqlangan – reja checkpoint'dan olinadi
+                first.setTotalPages(resume.totalPages());
+                first.setTotalElements(resume.totalElements());
+                head = Flux.empty();
+            } else {
+                pages.add(first);
+                head = Flux.from(onPage.apply(first, fetchPage(reqDate, senderPin, first)));
+            }
+
+            Flux<R> rest = Flux.defer(() -> {
+
+                if (first.isFailed()) {
+                    log.error("❌ 1-sahifa yuklanmadi, totalPages noma'lum → date={}", reqDate);
+                    return Flux.empty();
+                }
+
+                Integer totalPages = first.getTotalPages();
+                if (totalPages == null) {
+                    log.warn("⚠️ totalPages kelmadi, bo'sh sahifagacha o'qiladi → date={}", reqDate);
+                    return streamUntilEmpty(reqDate, senderPin, concurrency, resume, pages, onPage);
+                }
+
+                log.info("🗺 Sahifa rejasi → date={}, totalPages={}, totalElements={}, oldin tugagan={}",
+                        reqDate, totalPages, first.getTotalElements(), resume.completedPages().size());
+
+                return Flux.range(2, Math.max(0, totalPages - 1))
+                        .filter(page -> !resume.isCompleted(page))
+                        .flatMap(page -> {
+                            TradeStatPage meta = new TradeStatPage(page);
+                            pages.add(meta);
+                            return onPage.apply(meta, fetchPage(reqDate, senderPin, meta));
+                        }, concurrency);
+            });
+
+            return head
+                    .concatWith(rest)
+                    .doOnComplete(() -> verify(reqDate, first, pages, resume));
+        });
+    }
+
+    /**
+     * API totalPages bermasa: eski usul – 2-sahifadan boshlab birinchi bo'sh sahifagacha
+     */
+    private <R> Flux<R> streamUntilEmpty(LocalDate reqDate, String senderPin, int concurrency, ResumePoint resume,
+                                         List<TradeStatPage> pages,
+                                         BiFunction<TradeStatPage, Flux<TradeStatisticDTO>, Publisher<R>> onPage) {
+
+        AtomicBoolean exhausted = new AtomicBoolean(false);
+
+        return Flux.generate(
+                        () -> 2,
+                        (Integer page, SynchronousSink<Integer> sink) -> {
+                            if (exhausted.get()) {
+                                sink.complete();
+                            } else {
+                                sink.next(page);
+                            }
+                            return page + 1;
+                        }
+                )
+                .filter(page -> !resume.isCompleted(page))
+                .flatMap(page -> {
+                    TradeStatPage meta = new TradeStatPage(page);
+                    pages.add(meta);
+                    Flux<TradeStatisticDTO> rows = fetchPage(reqDate, senderPin, meta)
+                            .doOnComplete(() -> {
+                                // xato bilan tugagan sahifa "oxiri" degani emas
+                                if (meta.getReceived() == 0 && !meta.isFailed()) {
+                                    exhausted.set(true);
+                                }
+                            });
+                    return onPage.apply(meta, rows);
+                }, concurrency);
+    }
+
+    private void verify(LocalDate reqDate, TradeStatPage first, List<TradeStatPage> pages, ResumePoint resume) {
+
+        long received = resume.completedRows()
+                + pages.stream().mapToLong(TradeStatPage::getReceived).sum();
+        List<Integer> failed = pages.stream()
+                .filter(TradeStatPage::isFailed)
+                .map(TradeStatPage::getPage)
+                .sorted()
+                .toList();
+        Integer expected = first.getTotalElements();
+
+        if (!failed.isEmpty()) {
+            log.error("❌ Yuklanmagan sahifalar → date={}, pages={}", reqDate, failed);
+        }
+
+        if (expected != null && received < expected) {
+            log.error("⚠️ Qisqa import → date={}, kutilgan={}, kelgan={}, yetmadi={}",
+                    reqDate, expected, received, expected - received);
+        } else {
+            log.info("✅ Sahifalar to‘liq → date={}, sahifa={}, qator={}",
+                    reqDate, pages.size() + resume.completedPages().size(), received);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package org.example.importexportservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.importexportservice.dto.TradeValueChange;
+import org.example.importexportservice.repository.TradeRollupRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * trade_rollup_monthly ni yuritadi.
+ * <p>
+ * Writer'lar o'z tranzaksiyasi ichida {@link #apply} ni chaqiradi: insert → +qiymat/+1,
+ * update → eski bucketdan −eski qiymat, yangi bucketga +yangi qiymat (country o'zgargan bo'lsa ikki xil bucket).
+ * COPY MERGE qatorma-qator delta bermaydi – undan keyin {@link #rebuild()}.
+ * To'liq qayta qurish: {@code --rollup-rebuild} argumenti yoki app.rollup.rebuild-on-startup.
+ */
+@Service
+@Order(Ordered.HIGHEST_PRECEDENCE + 30)
+@Slf4j
+public class TradeRollupService implements ApplicationRunner {
+
+    private final TradeRollupRepository tradeRollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final boolean rebuildOnStartup;
+    private final int hsPrefixLength;
+
+    private record Key(String hsPrefix, String countryCode, LocalDate month, String operationType) {
+    }
+
+    /**
+     * Parallel batch tranzaksiyalari bir xil bucket qatorlarini har doim bir tartibda lock qiladi → deadlock yo'q
+     */
+    private static final Comparator<TradeRollupRepository.Delta> LOCK_ORDER =
+            Comparator.comparing(TradeRollupRepository.Delta::month)
+                    .thenComparing(TradeRollupRepository.Delta::operationType)
+                    .thenComparing(TradeRollupRepository.Delta::hsPrefix)
+                    .thenComparing(TradeRollupRepository.Delta::countryCode);
+
+    public TradeRollupService(TradeRollupRepository tradeRollupRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.rollup.enabled:true}") boolean enabled,
+                              @Value("${app.rollup.rebuild-on-startup:false}") boolean rebuildOnStartup,
+                              @Value("${app.rollup.hs-prefix-length:4}") int hsPrefixLength) {
+        this.tradeRollupRepository = tradeRollupRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.rebuildOnStartup = rebuildOnStartup;
+        this.hsPrefixLength = hsPrefixLength;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled && (rebuildOnStartup || args.containsOption("rollup-rebuild"))) {
+            rebuild();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void apply(Collection<TradeValueChange> changes) {
+
+        if (!enabled || changes.isEmpty()) {
+            return;
+        }
+
+        Map<Key, BigDecimal> values = new HashMap<>();
+        Map<Key, Long> counts = new HashMap<>();
+
+        for (TradeValueChange change : changes) {
+            if (change.declarationDate() == null) {
+                continue;
+            }
+            if (!change.inserted()) {
+                Key old = key(change, change.oldCountryCode());
+                values.merge(old, nonNull(change.oldGoodsValue()).negate(), BigDecimal::add);
+                counts.merge(old, -1L, Long::sum);
+            }
+            Key current = key(change, change.newCountryCode());
+            values.merge(current, nonNull(change.newGoodsValue()), BigDecimal::add);
+            counts.merge(current, 1L, Long::sum);
+        }
+
+        List<TradeRollupRepository.Delta> deltas = new ArrayList<>(values.size());
+        values.forEach((key, value) -> {
+            long count = counts.get(key);
+            if (value.signum() != 0 || count != 0) {
+                deltas.add(new TradeRollupRepository.Delta(
+                        key.hsPrefix(), key.countryCode(), key.month(), key.operationType(), value, count));
+            }
+        });
+
+        deltas.sort(LOCK_ORDER);
+        tradeRollupRepository.apply(deltas);
+    }
+
+    public void rebuild() {
+
+        if (!enabled) {
+            return;
+        }
+
+        long started = System.nanoTime();
+        Integer rows = transactionTemplate.execute(status -> tradeRollupRepository.rebuild(hsPrefixLength));
+
+        log.info("📈 Rollup qayta qurildi → {} qator, {} ms",
+                rows, Duration.ofNanos(System.nanoTime() - started).toMillis());
+    }
+
+    private Key key(TradeValueChange change, String countryCode) {
+        String hs = change.hsCode();
+        return new Key(
+                hs == null ? "" : hs.substring(0, Math.min(hsPrefixLength, hs.length())),
+                countryCode == null ? "" : countryCode,
+                change.declarationDate().withDayOfMonth(1),
+                change.operationType() == null ? "" : change.operationType());
+    }
+
+    private static BigDecimal nonNull(BigDecimal value) {
+        return value == null ? BigDecimal.ZERO : value;
+    }
+}
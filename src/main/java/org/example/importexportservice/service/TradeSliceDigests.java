@@ -0,0 +1,115 @@
+package org.example.importexportservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.importexportservice.dto.SliceKey;
+import org.example.importexportservice.dto.TradeValueChange;
+import org.example.importexportservice.enums.UpdateMode;
+import org.example.importexportservice.hash.SliceDigest;
+import org.example.importexportservice.repository.TradeSliceDigestRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * trade_slice_digests ni yuritadi (faqat app.update.mode=SNAPSHOT_DIFF da).
+ * <p>
+ * Writer'lar o'z tranzaksiyasida {@link #invalidate} ni chaqiradi – o'zgargan sanalarning digestlari o'chadi.
+ * {@link #local} saqlangan digestni qaytaradi, sana uchun yo'q bo'lsa trade_data dan qayta hisoblab saqlaydi.
+ * COPY MERGE qatorma-qator delta bermaydi – undan keyin {@link #clear()}.
+ * Rejim o'chiq bo'lganda invalidatsiya yuritilmaydi, shuning uchun ishga tushishda jadval tozalanadi.
+ */
+@Service
+@Order(Ordered.HIGHEST_PRECEDENCE + 35)
+@Slf4j
+public class TradeSliceDigests implements ApplicationRunner {
+
+    private final TradeSliceDigestRepository tradeSliceDigestRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int chapterLength;
+
+    public TradeSliceDigests(TradeSliceDigestRepository tradeSliceDigestRepository,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.update.mode:FULL}") UpdateMode updateMode,
+                             @Value("${app.update.snapshot.chapter-length:2}") int chapterLength) {
+        this.tradeSliceDigestRepository = tradeSliceDigestRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = updateMode == UpdateMode.SNAPSHOT_DIFF;
+        this.chapterLength = chapterLength;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            clear();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void invalidate(Collection<TradeValueChange> changes) {
+
+        if (!enabled || changes.isEmpty()) {
+            return;
+        }
+
+        Set<LocalDate> dates = new HashSet<>();
+        for (TradeValueChange change : changes) {
+            if (change.declarationDate() != null) {
+                dates.add(change.declarationDate());
+            }
+        }
+        tradeSliceDigestRepository.invalidate(dates);
+    }
+
+    /**
+     * Sananing DB dagi digestlari, hs bobi darajasida
+     */
+    public Map<SliceKey, SliceDigest> local(LocalDate declarationDate) {
+
+        List<TradeSliceDigestRepository.Slice> slices = tradeSliceDigestRepository.find(declarationDate);
+        if (slices.isEmpty()) {
+            slices = transactionTemplate.execute(status ->
+                    tradeSliceDigestRepository.refresh(declarationDate, chapterLength));
+            log.debug("🧮 Digest qayta hisoblandi → date={}, bo'lak={}", declarationDate, slices.size());
+        }
+
+        Map<SliceKey, SliceDigest> digests = new HashMap<>();
+        for (TradeSliceDigestRepository.Slice slice : slices) {
+            digests.put(slice.key(), slice.digest());
+        }
+        return digests;
+    }
+
+    /**
+     * DB dagi {@code left(hs_code, chapterLength)} bilan bir xil
+     */
+    public String chapter(String hsCode) {
+        if (hsCode == null) {
+            return "";
+        }
+        return hsCode.substring(0, Math.min(chapterLength, hsCode.length()));
+    }
+
+    public void clear() {
+        int deleted = tradeSliceDigestRepository.clear();
+        if (deleted > 0) {
+            log.info("🧮 Slice digestlar tozalandi → {}", deleted);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package org.example.importexportservice.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.importexportservice.cache.DedupWindow;
+import org.example.importexportservice.dto.SliceKey;
+import org.example.importexportservice.dto.TradeStatisticDTO;
+import org.example.importexportservice.entity.TradeData;
+import org.example.importexportservice.enums.TradeOperationType;
+import org.example.importexportservice.hash.SliceDigest;
+import org.example.importexportservice.mapper.TradeStatisticsMapper;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Snapshot-diff update: kunning API sahifalari to'liq olingach, (declaration_date, operation_type) bo'laklari
+ * bo'yicha olingan va DB dagi digestlar solishtiriladi.
+ * <ul>
+ *     <li>bo'lak mos → uning qatorlari pipeline'ga umuman bormaydi (map/dedup/persist yo'q)</li>
+ *     <li>farq qilsa → faqat digest'i farq qilgan hs boblari pipeline orqali yoziladi</li>
+ * </ul>
+ * API faqat to'liq sahifalarni beradi, shuning uchun yuklab olish qisqarmaydi – tejov DB va hash indeks tomonida.
+ * Sana yoki operatsiya turi aniqlanmagan qatorlar har doim oddiy yo'ldan o'tadi.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class TradeSnapshotDiff {
+
+    private final TradeSliceDigests tradeSliceDigests;
+    private final TradeBatchPreparer tradeBatchPreparer;
+    private final TradeStatisticsMapper tradeStatisticsMapper;
+    private final TradeImportPipeline tradeImportPipeline;
+    private final MeterRegistry meterRegistry;
+
+    record Plan(List<TradeStatisticDTO> rows, int skippedSlices, int skippedChapters, int reconciledChapters) {
+    }
+
+    /**
+     * @param fetched kunning barcha API qatorlari
+     */
+    public Mono<Void> reconcile(DedupWindow window, Collection<TradeStatisticDTO> fetched) {
+        return Mono.fromCallable(() -> plan(fetched))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(plan -> tradeImportPipeline.persist(window, Flux.fromIterable(plan.rows())));
+    }
+
+    Plan plan(Collection<TradeStatisticDTO> fetched) {
+
+        Map<SliceKey, List<TradeStatisticDTO>> byChapter = new LinkedHashMap<>();
+        List<TradeStatisticDTO> rows = new ArrayList<>();
+
+        for (TradeStatisticDTO dto : fetched) {
+            LocalDate date = tradeStatisticsMapper.mapDate(dto.getDeclarationDate());
+            TradeOperationType operationType = tradeStatisticsMapper.mapOpType(dto.getOperationType());
+            if (date == null || operationType == null) {
+                rows.add(dto);
+                continue;
+            }
+            SliceKey key = new SliceKey(date, operationType.name(), tradeSliceDigests.chapter(dto.getHsCode()));
+            byChapter.computeIfAbsent(key, k -> new ArrayList<>()).add(dto);
+        }
+
+        // olingan tomon: DB ga yoziladigan ko'rinishda (mapping, identity dedup, uniqueHash)
+        Map<SliceKey, SliceDigest> fetchedDigests = new HashMap<>();
+        byChapter.forEach((key, dtos) -> {
+            SliceDigest digest = SliceDigest.EMPTY;
+            for (TradeData row : tradeBatchPreparer.prepare(dtos)) {
+                digest = digest.add(row.getUniqueHash());
+            }
+            fetchedDigests.put(key, digest);
+        });
+
+        Set<LocalDate> dates = new TreeSet<>();
+        byChapter.keySet().forEach(key -> dates.add(key.declarationDate()));
+
+        Map<SliceKey, SliceDigest> localDigests = new HashMap<>();
+        for (LocalDate date : dates) {
+            localDigests.putAll(tradeSliceDigests.local(date));
+        }
+
+        Map<SliceKey, SliceDigest> fetchedSlices = sumBySlice(fetchedDigests);
+        Map<SliceKey, SliceDigest> localSlices = sumBySlice(localDigests);
+
+        int skippedChapters = 0;
+        int reconciledChapters = 0;
+        for (Map.Entry<SliceKey, List<TradeStatisticDTO>> entry : byChapter.entrySet()) {
+            SliceKey key = entry.getKey();
+            SliceKey slice = key.slice();
+            if (fetchedSlices.get(slice).equals(localSlices.get(slice))
+                    || fetchedDigests.get(key).equals(localDigests.get(key))) {
+                skippedChapters++;
+                continue;
+            }
+            rows.addAll(entry.getValue());
+            reconciledChapters++;
+        }
+
+        int skippedSlices = 0;
+        for (Map.Entry<SliceKey, SliceDigest> entry : fetchedSlices.entrySet()) {
+            if (entry.getValue().equals(localSlices.get(entry.getKey()))) {
+                skippedSlices++;
+            }
+        }
+
+        meterRegistry.counter("trade.snapshot.slices", "result", "skipped").increment(skippedSlices);
+        meterRegistry.counter("trade.snapshot.slices", "result", "reconciled")
+                .increment(fetchedSlices.size() - skippedSlices);
+        meterRegistry.counter("trade.snapshot.chapters", "result", "skipped").increment(skippedChapters);
+        meterRegistry.counter("trade.snapshot.chapters", "result", "reconciled").increment(reconciledChapters);
+        meterRegistry.counter("trade.rows", "result", "snapshot_skipped").increment(fetched.size() - rows.size());
+
+        log.info("🧮 Snapshot diff → bo'lak: mos={}, farqli={}; hs bobi: mos={}, yoziladi={}; qator: {} / {}",
+                skippedSlices, fetchedSlices.size() - skippedSlices, skippedChapters, reconciledChapters,
+                rows.size(), fetched.size());
+
+        return new Plan(rows, skippedSlices, skippedChapters, reconciledChapters);
+    }
+
+    private static Map<SliceKey, SliceDigest> sumBySlice(Map<SliceKey, SliceDigest> chapters) {
+        Map<SliceKey, SliceDigest> slices = new HashMap<>();
+        chapters.forEach((key, digest) -> slices.merge(key.slice(), digest, SliceDigest::plus));
+        return slices;
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.importexportservice.token;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+/**
+ * Har so'rovga Bearer token qo'shadi. 401 kelsa token majburan yangilanadi va so'rov bir marta qayta yuboriladi;
+ * ikkinchi 401 chaqiruvchiga odatdagi javob sifatida qaytadi.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BearerTokenFilter implements ExchangeFilterFunction {
+
+    private final TokenHolder tokenHolder;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return tokenHolder.getToken()
+                .flatMap(token -> next.exchange(withToken(request, token))
+                        .flatMap(response -> {
+                            if (response.statusCode().value() != HttpStatus.UNAUTHORIZED.value()) {
+                                return Mono.just(response);
+                            }
+                            meterRegistry.counter("token.unauthorized_retries").increment();
+                            log.warn("🔑 401 → {} {}, token yangilanib qayta yuboriladi", request.method(), request.url());
+                            return response.releaseBody()
+                                    .then(tokenHolder.forceRefresh(token))
+                                    .flatMap(fresh -> next.exchange(withToken(request, fresh)));
+                        }));
+    }
+
+    private static ClientRequest withToken(ClientRequest request, String token) {
+        return ClientRequest.from(request)
+                .headers(headers -> headers.setBearerAuth(token))
+                .build();
+    }
+}
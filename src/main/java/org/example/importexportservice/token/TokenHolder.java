@@ -1,54 +1,141 @@
 package org.example.importexportservice.token;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.importexportservice.dto.repsonse.TokenResponseDto;
+import org.example.importexportservice.limiter.SingleFlight;
 import org.example.importexportservice.service.TokenService;
+import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.slf4j.Logger;
+import reactor.core.publisher.Mono;
 
-import java.util.concurrent.CountDownLatch;
+import java.time.Duration;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
 
+/**
+ * Access tokenni bloklamasdan beradi.
+ * <p>
+ * Token expires_in bo'yicha keshlanadi: muddati tugashiga refresh-ahead qolganda birinchi murojaat
+ * fonda yangilashni boshlaydi va hozirgi tokenni qaytaradi; muddati o'tgan bo'lsa yangisi kutiladi.
+ * Bir vaqtda faqat bitta token so'rovi ketadi (single-flight) – qolganlar o'shanga ulanadi.
+ */
 @Component
-@RequiredArgsConstructor
 public class TokenHolder {
 
     private static final Logger log = LoggerFactory.getLogger(TokenHolder.class);
+    private static final String KEY = "token";
+
+    private record CachedToken(String value, long refreshAt, long expiresAt) {
+    }
+
     private final TokenService tokenService;
+    private final MeterRegistry meterRegistry;
+    private final SingleFlight<String, CachedToken> refreshes;
+    private final Duration refreshAhead;
+    private final Duration defaultExpiresIn;
+    private final LongSupplier clock;
+
+    private final AtomicReference<CachedToken> current = new AtomicReference<>();
+    private volatile long refreshedAt;
+
+    public TokenHolder(TokenService tokenService,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.api.token.refresh-ahead:60s}") Duration refreshAhead,
+                       // javobda expires_in bo'lmasa (token 10 minutlik)
+                       @Value("${app.api.token.default-expires-in:10m}") Duration defaultExpiresIn) {
+        this(tokenService, meterRegistry, refreshAhead, defaultExpiresIn, System::currentTimeMillis);
+    }
+
+    TokenHolder(TokenService tokenService, MeterRegistry meterRegistry,
+                Duration refreshAhead, Duration defaultExpiresIn, LongSupplier clock) {
+        this.tokenService = tokenService;
+        this.meterRegistry = meterRegistry;
+        this.refreshes = new SingleFlight<>("token", 1, meterRegistry);
+        this.refreshAhead = refreshAhead;
+        this.defaultExpiresIn = defaultExpiresIn;
+        this.clock = clock;
 
-    private final AtomicReference<String> accessToken = new AtomicReference<>();
-    private final CountDownLatch tokenReady = new CountDownLatch(1);
+        // oxirgi muvaffaqiyatli yangilanishdan beri o'tgan vaqt (hali token yo'q → NaN)
+        Gauge.builder("token.age_seconds", this,
+                        holder -> holder.refreshedAt == 0 ? Double.NaN : (holder.clock.getAsLong() - holder.refreshedAt) / 1000d)
+                .register(meterRegistry);
+    }
 
+    public Mono<String> getToken() {
+        return Mono.defer(() -> {
+            CachedToken token = current.get();
+            long now = clock.getAsLong();
 
-    public String getToken(){
-      try {
-          tokenReady.await();
-      }catch (InterruptedException e){
-          Thread.currentThread().interrupt();
-          throw new IllegalStateException("Token kutishda xatolik");
-      }
-      return accessToken.get();
+            if (token == null || now >= token.expiresAt()) {
+                return refresh().map(CachedToken::value);
+            }
+            if (now >= token.refreshAt()) {
+                refreshInBackground();
+            }
+            return Mono.just(token.value());
+        });
     }
 
     /**
-     * Har 9 minutda tokenni yangilaydi (10 minutlik token uchun xavfsiz vaqt)
-     * 9 min = 9 * 60 * 1000 = 540,000 ms
+     * 401 dan keyin: rad etilgan token hali keshda bo'lsa majburan yangilanadi.
+     * Parallel 401 lar bitta so'rovni bo'lishadi; kesh allaqachon yangilangan bo'lsa yangi token darhol qaytadi.
      */
+    public Mono<String> forceRefresh(String rejectedToken) {
+        return Mono.defer(() -> {
+            CachedToken token = current.get();
+            if (token != null && !token.value().equals(rejectedToken) && clock.getAsLong() < token.expiresAt()) {
+                return Mono.just(token.value());
+            }
+            log.warn("🔑 Token rad etildi (401), majburiy yangilanmoqda");
+            return refresh().map(CachedToken::value);
+        });
+    }
 
-    @Scheduled(fixedRate = 540_000)
-    public void refresh() {
-        try {
-            log.info("Token keshga yangilash boshlandi...");
-            String newToken = tokenService.getAccessToken();
-            accessToken.set(newToken);
-            tokenReady.countDown();
-            log.info("Token keshda muvaffaqiyatli yangilandi.");
-        }catch (Exception e){
-            log.error("Tokenni yangilashda xatolik yuz berdi: {}", e.getMessage());
+    /**
+     * Trafik bo'lmaganda ham token muddatidan oldin yangilanadi
+     */
+    @Scheduled(fixedDelayString = "${app.api.token.check-interval:30s}")
+    public void refreshIfDue() {
+        CachedToken token = current.get();
+        if (token == null || clock.getAsLong() >= token.refreshAt()) {
+            refreshInBackground();
         }
+    }
 
+    private void refreshInBackground() {
+        refresh().subscribe(token -> { }, e -> { /* refresh() o'zi log qiladi */ });
     }
 
+    private Mono<CachedToken> refresh() {
+        return refreshes.execute(KEY, () -> tokenService.fetchToken()
+                .map(this::toCached)
+                .doOnNext(token -> {
+                    current.set(token);
+                    refreshedAt = clock.getAsLong();
+                    meterRegistry.counter("token.refresh", "outcome", "success").increment();
+                    log.info("Token keshda muvaffaqiyatli yangilandi.");
+                })
+                .doOnError(e -> {
+                    meterRegistry.counter("token.refresh", "outcome", "error").increment();
+                    log.error("Tokenni yangilashda xatolik yuz berdi: {}", e.getMessage());
+                }));
+    }
+
+    private CachedToken toCached(TokenResponseDto response) {
 
+        Duration expiresIn = response.getExpiresIn() != null && response.getExpiresIn() > 0
+                ? Duration.ofSeconds(response.getExpiresIn())
+                : defaultExpiresIn;
+        // qisqa muddatli tokenlarda yarim umrida yangilanadi
+        Duration ahead = refreshAhead.compareTo(expiresIn.dividedBy(2)) > 0 ? expiresIn.dividedBy(2) : refreshAhead;
+
+        long now = clock.getAsLong();
+        return new CachedToken(response.getAccessToken(),
+                now + expiresIn.minus(ahead).toMillis(),
+                now + expiresIn.toMillis());
+    }
 }
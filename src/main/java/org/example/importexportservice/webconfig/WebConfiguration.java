@@ -1,6 +1,6 @@
 package org.example.importexportservice.webconfig;
 
-import org.springframework.beans.factory.annotation.Value;
+import org.example.importexportservice.token.BearerTokenFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
@@ -10,11 +10,25 @@ import org.springframework.web.reactive.function.client.WebClient;
 public class WebConfiguration {
 
 
+    /**
+     * API client: Authorization header va 401 dagi qayta urinishni {@link BearerTokenFilter} boshqaradi
+     */
     @Bean
     @Primary
-    public WebClient webClient() {
+    public WebClient webClient(BearerTokenFilter bearerTokenFilter) {
+        // HS-code sahifalari TradeStatPageDecoder bilan stream qilinadi,
+        // qolgan javoblar kichik – default 256 KB limit yetadi
+        return WebClient.builder()
+                .filter(bearerTokenFilter)
+                .build();
+    }
+
+    /**
+     * Faqat token endpointi uchun (Basic auth, filtrsiz)
+     */
+    @Bean
+    public WebClient tokenWebClient() {
         return WebClient.builder()
-                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(16 * 1024 * 1024))
                 .build();
     }
 }
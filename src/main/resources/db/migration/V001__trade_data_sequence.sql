@@ -0,0 +1,23 @@
+-- trade_data.id: IDENTITY → trade_data_seq (INCREMENT 50, Hibernate pooled-lo)
+
+CREATE SEQUENCE IF NOT EXISTS trade_data_seq INCREMENT BY 50;
+
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1
+               FROM information_schema.columns
+               WHERE table_name = 'trade_data'
+                 AND column_name = 'id'
+                 AND is_identity = 'YES') THEN
+
+        ALTER TABLE trade_data ALTER COLUMN id DROP IDENTITY;
+
+        -- faqat bir marta, identitydan ko'chishda: sequence mavjud max(id) dan keyin boshlanadi
+        PERFORM setval('trade_data_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM trade_data), false);
+    END IF;
+END $$;
+
+ALTER SEQUENCE trade_data_seq INCREMENT BY 50;
+
+-- bulk/COPY yo'llari id ni o'zi bermaydi
+ALTER TABLE trade_data ALTER COLUMN id SET DEFAULT nextval('trade_data_seq');
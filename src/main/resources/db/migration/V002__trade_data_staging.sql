@@ -0,0 +1,14 @@
+-- COPY backfill uchun staging jadval (UNLOGGED: WAL yozilmaydi, crash bo'lsa bo'shab qoladi)
+
+CREATE UNLOGGED TABLE IF NOT EXISTS trade_data_staging
+(
+    seq              BIGSERIAL,
+    operation_type   VARCHAR(255),
+    trade_type       VARCHAR(255),
+    company_inn      VARCHAR(255),
+    hs_code          VARCHAR(255),
+    goods_value      NUMERIC(19, 3),
+    country_code     VARCHAR(255),
+    declaration_date DATE,
+    unique_hash      VARCHAR(64)
+);
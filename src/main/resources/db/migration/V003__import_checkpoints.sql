@@ -0,0 +1,20 @@
+-- Uzoq importlar uchun sahifa checkpointlari: qayta ishga tushganda PERSISTED sahifalar so'ralmaydi,
+-- FAILED sahifalar retry navbatida turadi (attempts bo'yicha chegaralanadi)
+
+CREATE TABLE IF NOT EXISTS import_checkpoints
+(
+    req_date       DATE        NOT NULL,
+    page           INTEGER     NOT NULL,
+    status         VARCHAR(16) NOT NULL,
+    row_count      INTEGER     NOT NULL DEFAULT 0,
+    total_pages    INTEGER,
+    total_elements INTEGER,
+    attempts       INTEGER     NOT NULL DEFAULT 0,
+    last_error     TEXT,
+    updated_at     TIMESTAMP   NOT NULL DEFAULT now(),
+    PRIMARY KEY (req_date, page)
+);
+
+CREATE INDEX IF NOT EXISTS idx_import_checkpoints_failed
+    ON import_checkpoints (req_date, page)
+    WHERE status = 'FAILED';
@@ -0,0 +1,15 @@
+-- Enrich so'rovlari holati: har INN uchun oxirgi natija va keyingi tekshiruv vaqti.
+-- next_check_at kelmaguncha INN upstream'ga qayta yuborilmaydi (negative cache).
+
+CREATE TABLE IF NOT EXISTS organization_lookups
+(
+    inn           VARCHAR(255) PRIMARY KEY,
+    outcome       VARCHAR(32)  NOT NULL,
+    attempts      INTEGER      NOT NULL DEFAULT 0,
+    checked_at    TIMESTAMP    NOT NULL DEFAULT now(),
+    next_check_at TIMESTAMP    NOT NULL,
+    last_error    TEXT
+);
+
+CREATE INDEX IF NOT EXISTS idx_organization_lookups_next_check
+    ON organization_lookups (next_check_at);
@@ -0,0 +1,11 @@
+-- Enrich navbati: yozish yo'li organizations da yo'q INN larni shu yerga qo'shadi,
+-- enrich butun trade_data ni NOT IN bilan aylanib chiqmasdan faqat shu deltani o'qiydi
+
+CREATE TABLE IF NOT EXISTS pending_enrichment
+(
+    inn         VARCHAR(255) PRIMARY KEY,
+    enqueued_at TIMESTAMP    NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_pending_enrichment_enqueued_at
+    ON pending_enrichment (enqueued_at);
@@ -0,0 +1,18 @@
+-- Dashboard uchun oylik agregat: hs_code prefiksi × davlat × oy × operatsiya turi.
+-- Yozish yo'li delta qo'shib boradi, to'liq qayta qurish TradeRollupService.rebuild().
+-- NULL kalitlar '' bilan saqlanadi (PRIMARY KEY NULL qabul qilmaydi).
+
+CREATE TABLE IF NOT EXISTS trade_rollup_monthly
+(
+    hs_prefix      VARCHAR(16)    NOT NULL,
+    country_code   VARCHAR(255)   NOT NULL,
+    month          DATE           NOT NULL,
+    operation_type VARCHAR(255)   NOT NULL,
+    total_value    NUMERIC(24, 3) NOT NULL DEFAULT 0,
+    row_count      BIGINT         NOT NULL DEFAULT 0,
+    updated_at     TIMESTAMP      NOT NULL DEFAULT now(),
+    PRIMARY KEY (hs_prefix, country_code, month, operation_type)
+);
+
+CREATE INDEX IF NOT EXISTS idx_trade_rollup_monthly_month
+    ON trade_rollup_monthly (month);
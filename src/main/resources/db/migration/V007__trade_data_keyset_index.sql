@@ -0,0 +1,4 @@
+-- Read API keyset pagination: ORDER BY declaration_date, id va (declaration_date, id) > (?, ?)
+
+CREATE INDEX IF NOT EXISTS idx_trade_data_date_id
+    ON trade_data (declaration_date, id);
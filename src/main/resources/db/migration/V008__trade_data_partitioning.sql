@@ -0,0 +1,82 @@
+-- trade_data → declaration_date bo'yicha oylik RANGE partitioning.
+-- Hibernate ddl-auto oddiy jadval yaratgan bo'lsa (yoki eski baza), bir marta qayta quriladi:
+-- eski jadval trade_data_legacy ga o'tadi, ma'lumot oylik partitionlarga ko'chiriladi.
+-- PK (id, declaration_date), identity unique constraint partition-local (kalit declaration_date ni o'z ichiga oladi).
+
+CREATE OR REPLACE FUNCTION trade_data_ensure_partition(p_month DATE) RETURNS BOOLEAN AS $$
+DECLARE
+    start_date DATE := date_trunc('month', p_month)::date;
+    end_date   DATE := (date_trunc('month', p_month) + INTERVAL '1 month')::date;
+    part_name  TEXT := 'trade_data_' || to_char(start_date, 'YYYY_MM');
+BEGIN
+    IF to_regclass(part_name) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+
+    IF EXISTS (SELECT 1 FROM trade_data_default
+               WHERE declaration_date >= start_date AND declaration_date < end_date) THEN
+        -- default partitionda shu oy qatorlari bor → default ajratiladi, qatorlar yangi partitionga ko'chadi
+        ALTER TABLE trade_data DETACH PARTITION trade_data_default;
+        EXECUTE format('CREATE TABLE %I PARTITION OF trade_data FOR VALUES FROM (%L) TO (%L)',
+                       part_name, start_date, end_date);
+        EXECUTE format('INSERT INTO %I SELECT * FROM trade_data_default
+                        WHERE declaration_date >= %L AND declaration_date < %L',
+                       part_name, start_date, end_date);
+        DELETE FROM trade_data_default WHERE declaration_date >= start_date AND declaration_date < end_date;
+        ALTER TABLE trade_data ATTACH PARTITION trade_data_default DEFAULT;
+    ELSE
+        EXECUTE format('CREATE TABLE %I PARTITION OF trade_data FOR VALUES FROM (%L) TO (%L)',
+                       part_name, start_date, end_date);
+    END IF;
+
+    RETURN TRUE;
+END $$ LANGUAGE plpgsql;
+
+DO $$
+DECLARE
+    legacy_nulls BIGINT;
+    m            DATE;
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = 'trade_data'::regclass) = 'r' THEN
+
+        ALTER TABLE trade_data RENAME TO trade_data_legacy;
+        ALTER TABLE trade_data_legacy RENAME CONSTRAINT trade_data_pkey TO trade_data_legacy_pkey;
+        ALTER INDEX IF EXISTS idx_trade_data_date_id RENAME TO idx_trade_data_legacy_date_id;
+        IF EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_trade_data_identity') THEN
+            ALTER TABLE trade_data_legacy RENAME CONSTRAINT uk_trade_data_identity TO uk_trade_data_legacy_identity;
+        END IF;
+
+        CREATE TABLE trade_data
+        (
+            LIKE trade_data_legacy INCLUDING DEFAULTS
+        ) PARTITION BY RANGE (declaration_date);
+
+        ALTER TABLE trade_data ALTER COLUMN declaration_date SET NOT NULL;
+        ALTER TABLE trade_data ADD CONSTRAINT trade_data_pkey PRIMARY KEY (id, declaration_date);
+        ALTER TABLE trade_data ADD CONSTRAINT uk_trade_data_identity
+            UNIQUE (company_inn, hs_code, declaration_date, operation_type);
+
+        CREATE TABLE trade_data_default PARTITION OF trade_data DEFAULT;
+
+        FOR m IN SELECT DISTINCT date_trunc('month', declaration_date)::date
+                 FROM trade_data_legacy
+                 WHERE declaration_date IS NOT NULL
+        LOOP
+            PERFORM trade_data_ensure_partition(m);
+        END LOOP;
+
+        INSERT INTO trade_data SELECT * FROM trade_data_legacy WHERE declaration_date IS NOT NULL;
+
+        SELECT count(*) INTO legacy_nulls FROM trade_data_legacy WHERE declaration_date IS NULL;
+        IF legacy_nulls = 0 THEN
+            DROP TABLE trade_data_legacy;
+        ELSE
+            -- partition kaliti NULL bo'la olmaydi: bu qatorlar trade_data_legacy da qoladi
+            DELETE FROM trade_data_legacy WHERE declaration_date IS NOT NULL;
+            RAISE NOTICE 'trade_data_legacy: declaration_date NULL bo''lgan % qator qoldi', legacy_nulls;
+        END IF;
+    END IF;
+END $$;
+
+CREATE INDEX IF NOT EXISTS idx_trade_data_date_id
+    ON trade_data (declaration_date, id);
@@ -0,0 +1,18 @@
+-- Ko'p kunlik backfill: har kun alohida ish birligi. Qayta ishga tushirilganda DONE kunlar o'tkazib yuboriladi,
+-- PENDING/FAILED (va uzilib qolgan RUNNING) kunlar qayta olinadi
+
+CREATE TABLE IF NOT EXISTS backfill_days
+(
+    req_date    DATE        NOT NULL PRIMARY KEY,
+    status      VARCHAR(16) NOT NULL,
+    attempts    INTEGER     NOT NULL DEFAULT 0,
+    row_count   BIGINT,
+    last_error  TEXT,
+    started_at  TIMESTAMP,
+    finished_at TIMESTAMP,
+    updated_at  TIMESTAMP   NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_backfill_days_open
+    ON backfill_days (req_date)
+    WHERE status <> 'DONE';
@@ -0,0 +1,23 @@
+-- CDC outbox: trade_data ga insert/update bo'lgan har qator uchun ixcham hodisa, writer tranzaksiyasida yoziladi.
+-- Iste'molchilar seq bo'yicha "oxirgi o'qilgandan keyin" o'qiydi (GET /api/changes?after=).
+-- seq commit tartibida emas, ajratilish tartibida beriladi: o'qishda txid < pg_snapshot_xmin(...) sharti
+-- hali ochiq tranzaksiyalar (kichikroq seq bilan) commit bo'lmaguncha undan keyingi hodisalarni ko'rsatmaydi
+-- (PostgreSQL 13+).
+
+CREATE TABLE IF NOT EXISTS trade_change_outbox
+(
+    seq              BIGSERIAL PRIMARY KEY,
+    txid             XID8          NOT NULL DEFAULT pg_current_xact_id(),
+    op               VARCHAR(8)    NOT NULL,
+    operation_type   VARCHAR(255),
+    company_inn      VARCHAR(255),
+    hs_code          VARCHAR(255),
+    declaration_date DATE,
+    old_goods_value  NUMERIC(19, 3),
+    new_goods_value  NUMERIC(19, 3),
+    unique_hash      VARCHAR(64),
+    created_at       TIMESTAMP     NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_trade_change_outbox_created_at
+    ON trade_change_outbox (created_at);
@@ -0,0 +1,16 @@
+-- Snapshot-diff update uchun kontent digestlari: (declaration_date, operation_type, hs bobi) bo'yicha.
+-- Digest tartibga bog'liq emas: qatorlar soni + unique_hash ning ikki 32-bitli so'zi yig'indisi.
+-- Writer'lar o'zgargan sanalarning digestlarini o'chiradi, keyingi update ularni trade_data dan qayta hisoblaydi.
+-- NULL kalitlar '' bilan saqlanadi (PRIMARY KEY NULL qabul qilmaydi).
+
+CREATE TABLE IF NOT EXISTS trade_slice_digests
+(
+    declaration_date DATE         NOT NULL,
+    operation_type   VARCHAR(255) NOT NULL,
+    hs_chapter       VARCHAR(16)  NOT NULL,
+    row_count        BIGINT       NOT NULL,
+    hash_sum_hi      BIGINT       NOT NULL,
+    hash_sum_lo      BIGINT       NOT NULL,
+    updated_at       TIMESTAMP    NOT NULL DEFAULT now(),
+    PRIMARY KEY (declaration_date, operation_type, hs_chapter)
+);
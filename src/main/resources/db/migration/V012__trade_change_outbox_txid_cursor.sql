@@ -0,0 +1,7 @@
+-- CDC outbox kursori (txid, seq): xid birinchi yozuvda (trade_data upsert), seq esa keyinroq outbox
+-- insert'ida olinadi, shuning uchun seq bo'yicha sahifalash ochiq tranzaksiyaning kichikroq seq'li
+-- hodisasini o'tkazib yuborishi mumkin. Keyinroq ko'rinadigan har qanday hodisaning txid'i o'qish
+-- paytidagi xmin dan kichik emas → (txid, seq) kursoridan orqada qolmaydi.
+
+CREATE INDEX IF NOT EXISTS idx_trade_change_outbox_txid_seq
+    ON trade_change_outbox (txid, seq);
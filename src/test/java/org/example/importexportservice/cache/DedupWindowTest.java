@@ -0,0 +1,90 @@
+package org.example.importexportservice.cache;
+
+import org.example.importexportservice.entity.TradeData;
+import org.example.importexportservice.enums.TradeOperationType;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DedupWindowTest {
+
+    private static TradeData row(String inn, String hash) {
+        return TradeData.builder()
+                .companyInn(inn)
+                .hsCode("84713000")
+                .declarationDate(LocalDate.of(2025, 3, 17))
+                .tradeOperationType(TradeOperationType.values()[0])
+                .uniqueHash(hash)
+                .build();
+    }
+
+    private static List<TradeData> batch(TradeData... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+
+    @Test
+    void dropsExactRepeatsAcrossBatches() {
+        DedupWindow window = new DedupWindow(1000);
+
+        List<TradeData> first = batch(row("111111111", "aa01"), row("222222222", "bb01"));
+        window.complete(window.admit(first), true);
+
+        List<TradeData> second = batch(row("111111111", "aa01"), row("222222222", "bb02"));
+        window.admit(second);
+
+        assertEquals(1, second.size());
+        assertEquals("bb02", second.get(0).getUniqueHash());
+        assertEquals(1, window.getDropped());
+    }
+
+    @Test
+    void conflictingUpdateWaitsForInFlightBatch() {
+        DedupWindow window = new DedupWindow(1000);
+
+        DedupWindow.Admission first = window.admit(batch(row("111111111", "aa01")));
+        DedupWindow.Admission second = window.admit(batch(row("111111111", "aa02")));
+        DedupWindow.Admission unrelated = window.admit(batch(row("333333333", "cc01")));
+
+        AtomicBoolean ready = new AtomicBoolean();
+        Disposable waiting = second.ready().subscribe(v -> { }, e -> { }, () -> ready.set(true));
+
+        assertFalse(ready.get());
+        assertNull(unrelated.ready().block());
+        assertEquals(1, window.getSerialized());
+
+        window.complete(first, true);
+        assertTrue(ready.get());
+        waiting.dispose();
+    }
+
+    @Test
+    void failedBatchIsForgotten() {
+        DedupWindow window = new DedupWindow(1000);
+
+        window.complete(window.admit(batch(row("111111111", "aa01"))), false);
+
+        List<TradeData> retry = batch(row("111111111", "aa01"));
+        window.admit(retry);
+        assertEquals(1, retry.size());
+        assertEquals(0, window.getDropped());
+    }
+
+    @Test
+    void stopsGrowingAtMaxEntries() {
+        DedupWindow window = new DedupWindow(1);
+
+        window.complete(window.admit(batch(row("111111111", "aa01"), row("222222222", "bb01"))), true);
+        assertEquals(1, window.size());
+
+        List<TradeData> again = batch(row("111111111", "aa01"), row("222222222", "bb01"));
+        window.admit(again);
+        // oynaga sig'magan kalit takrori DB/hash indeksga qoladi
+        assertEquals(1, again.size());
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.importexportservice.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FingerprintTableTest {
+
+    @Test
+    void putGetSurvivesResize() {
+        FingerprintTable table = new FingerprintTable(16);
+
+        for (long i = 0; i < 100_000; i++) {
+            table.put(i * 0x9E3779B97F4A7C15L, i + 1);
+        }
+
+        assertEquals(100_000, table.size());
+        for (long i = 0; i < 100_000; i++) {
+            assertEquals(i + 1, table.get(i * 0x9E3779B97F4A7C15L, -1));
+        }
+        assertEquals(-1, table.get(42, -1));
+    }
+
+    @Test
+    void putOverwritesExistingKey() {
+        FingerprintTable table = new FingerprintTable(16);
+
+        table.put(7, 1);
+        table.put(7, 2);
+
+        assertEquals(1, table.size());
+        assertEquals(2, table.get(7, -1));
+    }
+
+    @Test
+    void hashPrefixUsesFirst64Bits() {
+        String hash = "00000000000000ff" + "0".repeat(48);
+
+        assertEquals(0xffL, TradeDataHashIndex.hashPrefix(hash));
+    }
+}
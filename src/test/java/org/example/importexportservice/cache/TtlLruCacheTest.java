@@ -0,0 +1,41 @@
+package org.example.importexportservice.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TtlLruCacheTest {
+
+    private final AtomicReference<Instant> now = new AtomicReference<>(Instant.parse("2025-01-01T00:00:00Z"));
+
+    @Test
+    void expiresEntriesAfterTheirOwnTtl() {
+        TtlLruCache<String, String> cache = new TtlLruCache<>(10, now::get);
+        cache.put("short", "a", now.get().plus(Duration.ofMinutes(1)));
+        cache.put("long", "b", now.get().plus(Duration.ofDays(1)));
+
+        now.set(now.get().plus(Duration.ofMinutes(2)));
+
+        assertNull(cache.get("short"));
+        assertEquals("b", cache.get("long"));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedWhenFull() {
+        TtlLruCache<String, String> cache = new TtlLruCache<>(2, now::get);
+        Instant later = now.get().plus(Duration.ofDays(1));
+        cache.put("a", "1", later);
+        cache.put("b", "2", later);
+
+        cache.get("a");
+        cache.put("c", "3", later);
+
+        assertEquals("1", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(1, cache.getEvictions());
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.importexportservice.codec;
+
+import org.example.importexportservice.dto.TradeStatPage;
+import org.example.importexportservice.dto.TradeStatisticDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TradeStatPageDecoderTest {
+
+    private static final String PAGE = """
+            {"meta":{"a":[1,2,{"b":3}]},
+             "resList":[
+               {"g01A":"ИМ","g33A":"8703239019","g46":12345.678,"g15_17":"156","inn":"123456789","g54D":"01.02.25","extra":{"x":[1]}},
+               null,
+               {"g01A":"ЭК","g33A":"0101","g46":0.10000000000000000001,"g15_17":"643","inn":"12345678901234","g54D":"02.02.25"}
+             ],
+             "error":null,"totalPages":"7","totalElements":13}
+            """;
+
+    private final TradeStatPageDecoder decoder = new TradeStatPageDecoder();
+
+    @Test
+    void decodesRowsAndMetaAcrossAnyChunkBoundary() {
+        byte[] bytes = PAGE.getBytes(StandardCharsets.UTF_8);
+
+        for (int chunk = 1; chunk <= bytes.length; chunk += 7) {
+            TradeStatPage page = new TradeStatPage(1);
+            List<TradeStatisticDTO> rows = decoder.decode(chunks(bytes, chunk), page).collectList().block();
+
+            assertNotNull(rows);
+            assertEquals(2, rows.size(), "chunk=" + chunk);
+            assertEquals("ИМ", rows.get(0).getOperationType());
+            assertEquals(new BigDecimal("12345.678"), rows.get(0).getGoodsValue());
+            assertEquals(new BigDecimal("0.10000000000000000001"), rows.get(1).getGoodsValue());
+            assertEquals("12345678901234", rows.get(1).getCompanyInn());
+
+            assertEquals(2, page.getReceived());
+            assertEquals(7, page.getTotalPages());
+            assertEquals(13, page.getTotalElements());
+            assertNull(page.getErrorCode());
+        }
+    }
+
+    @Test
+    void emptyPageHasNoRows() {
+        TradeStatPage page = new TradeStatPage(3);
+        byte[] bytes = "{\"resList\":[],\"error\":\"NOT_FOUND\",\"totalPages\":2}".getBytes(StandardCharsets.UTF_8);
+
+        List<TradeStatisticDTO> rows = decoder.decode(chunks(bytes, 5), page).collectList().block();
+
+        assertNotNull(rows);
+        assertTrue(rows.isEmpty());
+        assertEquals("NOT_FOUND", page.getErrorCode());
+        assertEquals(2, page.getTotalPages());
+    }
+
+    private static Flux<DataBuffer> chunks(byte[] bytes, int size) {
+        List<DataBuffer> buffers = new ArrayList<>();
+        for (int i = 0; i < bytes.length; i += size) {
+            int len = Math.min(size, bytes.length - i);
+            buffers.add(DefaultDataBufferFactory.sharedInstance.wrap(Arrays.copyOfRange(bytes, i, i + len)));
+        }
+        return Flux.fromIterable(buffers);
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.importexportservice.hash;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class ContentHashTest {
+
+    /**
+     * TradeData.calculateHash ning eski (String.join + DigestUtils) varianti
+     */
+    private static String legacy(String op, String hsCode, BigDecimal goodsValue,
+                                 String countryCode, String companyInn, LocalDate date) {
+        String value = goodsValue == null ? "0" : goodsValue.stripTrailingZeros().toPlainString();
+        return DigestUtils.sha256Hex(String.join("|", op, hsCode, value, countryCode, companyInn, date.toString()));
+    }
+
+    @Test
+    void matchesLegacyHashForDecimalShapes() {
+        LocalDate date = LocalDate.of(2024, 3, 7);
+        String[] values = {
+                "0", "0.000", "1", "100", "100.000", "1E+3", "12.500", "-12.5", "0.05", "-0.001",
+                "123456789012345.678", "99999999999999999999.123", "1.10", "7000.010"
+        };
+
+        for (String v : values) {
+            BigDecimal value = new BigDecimal(v);
+            assertEquals(
+                    legacy("IMPORT", "8703239019", value, "156", "123456789", date),
+                    ContentHash.sha256Hex("IMPORT", "8703239019", value, "156", "123456789", date),
+                    v);
+        }
+    }
+
+    @Test
+    void matchesLegacyHashForNullsAndUnicode() {
+        LocalDate date = LocalDate.of(999, 12, 31);
+
+        assertEquals(
+                legacy("EXPORT", null, null, null, "12345678901234", date),
+                ContentHash.sha256Hex("EXPORT", null, null, null, "12345678901234", date));
+
+        assertEquals(
+                legacy("EXPORT", "ИМ-ЭК", BigDecimal.TEN, "Ўзб😀\uD800", "123456789", date),
+                ContentHash.sha256Hex("EXPORT", "ИМ-ЭК", BigDecimal.TEN, "Ўзб😀\uD800", "123456789", date));
+    }
+
+    @Test
+    void identityKeySeparatesFields() {
+        LocalDate date = LocalDate.of(2025, 1, 2);
+
+        assertEquals(
+                IdentityKey.of("123456789", "0101", date, "IMPORT"),
+                IdentityKey.of("123456789", "0101", LocalDate.parse("2025-01-02"), "IMPORT"));
+        assertNotEquals(IdentityKey.of("ab", "c", date, "IMPORT"), IdentityKey.of("a", "bc", date, "IMPORT"));
+        assertNotEquals(IdentityKey.of("a", null, date, "IMPORT"), IdentityKey.of("a", "", date, "IMPORT"));
+        assertNotEquals(IdentityKey.of("a", "b", date, "IMPORT"), IdentityKey.of("a", "b", null, "IMPORT"));
+    }
+}
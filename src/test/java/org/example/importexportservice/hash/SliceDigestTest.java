@@ -0,0 +1,33 @@
+package org.example.importexportservice.hash;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class SliceDigestTest {
+
+    private static final String A = "ffffffff00000001" + "0".repeat(48);
+    private static final String B = "0000000a7fffffff" + "0".repeat(48);
+    private static final String C = "80000000deadbeef" + "0".repeat(48);
+
+    @Test
+    void orderIndependentAndAdditive() {
+        SliceDigest abc = SliceDigest.EMPTY.add(A).add(B).add(C);
+        SliceDigest cba = SliceDigest.EMPTY.add(C).add(B).add(A);
+
+        assertEquals(abc, cba);
+        assertEquals(abc, SliceDigest.EMPTY.add(A).plus(SliceDigest.EMPTY.add(C).add(B)));
+        assertNotEquals(abc, SliceDigest.EMPTY.add(A).add(B));
+    }
+
+    @Test
+    void wordsAreSignedLikePostgresBitToInt() {
+        // ('x' || 'ffffffff')::bit(32)::int = -1, ('x' || '80000000')::bit(32)::int = -2147483648
+        SliceDigest digest = SliceDigest.EMPTY.add(A).add(C);
+
+        assertEquals(2, digest.rowCount());
+        assertEquals(-1L + Integer.MIN_VALUE, digest.hashSumHi());
+        assertEquals(1L + (0xdeadbeefL - (1L << 32)), digest.hashSumLo());
+    }
+}
@@ -0,0 +1,141 @@
+package org.example.importexportservice.limiter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static AdaptiveConcurrencyLimiter limiter(int initial) {
+        return new AdaptiveConcurrencyLimiter("test", initial, 1, 20, 2.0, 0.5,
+                e -> e instanceof IllegalStateException, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void growsWhileLatencyIsFlat() {
+        AdaptiveConcurrencyLimiter limiter = limiter(4);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.onSuccess(1_000_000);
+        }
+
+        assertTrue(limiter.getLimit() > 4, "limit=" + limiter.getLimit());
+        assertTrue(limiter.getLimit() <= 20);
+    }
+
+    @Test
+    void backsOffOnOverloadAndLatencySpike() {
+        AdaptiveConcurrencyLimiter limiter = limiter(16);
+
+        limiter.onError(new IllegalStateException("429"));
+        assertEquals(8, limiter.getLimit());
+
+        limiter.onError(new IllegalArgumentException("400"));
+        assertEquals(8, limiter.getLimit());
+
+        limiter.onSuccess(1_000_000);
+        limiter.onSuccess(10_000_000);
+        assertTrue(limiter.getLimit() < 8);
+    }
+
+    @Test
+    void queuesCallsAboveLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(2);
+        List<Sinks.Empty<Void>> calls = new ArrayList<>();
+        List<Disposable> subscriptions = new ArrayList<>();
+
+        for (int i = 0; i < 5; i++) {
+            subscriptions.add(limiter.run(() -> {
+                Sinks.Empty<Void> call = Sinks.empty();
+                calls.add(call);
+                return call.asMono().flux();
+            }).subscribe());
+        }
+
+        assertEquals(2, limiter.getInFlight());
+        assertEquals(3, limiter.getQueueDepth());
+
+        calls.get(0).tryEmitEmpty();
+        assertEquals(2, limiter.getInFlight());
+        assertEquals(2, limiter.getQueueDepth());
+
+        subscriptions.get(4).dispose();
+        assertEquals(1, limiter.getQueueDepth());
+
+        for (int i = 0; i < calls.size(); i++) {
+            calls.get(i).tryEmitEmpty();
+        }
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(0, limiter.getQueueDepth());
+        assertEquals(4, calls.size());
+    }
+
+    @Test
+    void slowDownstreamAfterFirstElementIsNotUpstreamLatency() {
+        AdaptiveConcurrencyLimiter limiter = limiter(8);
+
+        // ikkalasida ham javob ~5 ms da keladi; ikkinchisida qolgan body 100 ms "backpressure" bilan o'qiladi
+        limiter.run(() -> respondAfter(5, Flux.just(1))).blockLast();
+        limiter.run(() -> respondAfter(5, Flux.just(1, 2)
+                .delayElements(Duration.ofMillis(50)).startWith(0))).blockLast();
+
+        assertTrue(limiter.getLimit() >= 8, "limit=" + limiter.getLimit());
+    }
+
+    @Test
+    void cancellingWaitersWhileReleaseDrainsNeverLeaksPermits() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 2, 2, 2, 2.0, 0.5,
+                e -> false, new SimpleMeterRegistry());
+
+        for (int round = 0; round < 200; round++) {
+            List<Sinks.Empty<Void>> busy = List.of(Sinks.empty(), Sinks.empty());
+            busy.forEach(call -> limiter.run(() -> call.asMono().flux()).subscribe());
+            assertEquals(2, limiter.getInFlight());
+
+            List<Disposable> waiting = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                waiting.add(limiter.run(() -> Flux.just("queued")).subscribe());
+            }
+
+            // bekor qilish release() ning drain'i bilan poyga qiladi
+            Thread canceller = new Thread(() -> waiting.forEach(Disposable::dispose));
+            canceller.start();
+            busy.forEach(Sinks.Empty::tryEmitEmpty);
+            canceller.join();
+
+            waitUntil(() -> limiter.getInFlight() == 0 && limiter.getQueueDepth() == 0);
+        }
+
+        assertEquals("ok", limiter.run(() -> Flux.just("ok")).blockLast());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timeout");
+            Thread.sleep(5);
+        }
+    }
+
+    private static <T> Flux<T> respondAfter(long millis, Flux<T> body) {
+        return Flux.defer(() -> {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return body;
+        });
+    }
+}
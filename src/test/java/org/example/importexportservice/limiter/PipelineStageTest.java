@@ -0,0 +1,122 @@
+package org.example.importexportservice.limiter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PipelineStageTest {
+
+    private static PipelineStage stage(int workers) {
+        return new PipelineStage("test", workers, 4, Schedulers.boundedElastic(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void neverRunsMoreThanWorkers() {
+        PipelineStage stage = stage(3);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        List<Integer> results = Flux.range(0, 30)
+                .flatMap(i -> stage.submit(() -> {
+                    peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.sleep(5);
+                    running.decrementAndGet();
+                    return i;
+                }), 16)
+                .collectList()
+                .block();
+
+        assertEquals(30, results.size());
+        assertEquals(3, peak.get());
+        assertEquals(0, stage.getActive());
+        assertEquals(0, stage.getQueued());
+    }
+
+    @Test
+    void queuesWhenBusyAndReleasesOnFailure() throws InterruptedException {
+        PipelineStage stage = stage(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Disposable busy = stage.submit(() -> release.await(5, TimeUnit.SECONDS)).subscribe();
+        Disposable waiting = stage.submit(() -> "done").subscribe();
+
+        waitUntil(() -> stage.getQueued() == 1);
+        assertEquals(1, stage.getActive());
+
+        release.countDown();
+        waitUntil(() -> stage.getActive() == 0 && stage.getQueued() == 0);
+
+        assertThrows(IllegalStateException.class, () -> stage.submit(() -> {
+            throw new IllegalStateException("db");
+        }).block());
+        assertEquals(0, stage.getActive());
+        busy.dispose();
+        waiting.dispose();
+    }
+
+    @Test
+    void cancelledWaiterLeavesQueue() throws InterruptedException {
+        PipelineStage stage = stage(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        stage.submit(() -> release.await(5, TimeUnit.SECONDS)).subscribe();
+        Disposable waiting = stage.submit(() -> "never").subscribe();
+        waitUntil(() -> stage.getQueued() == 1);
+
+        waiting.dispose();
+        assertEquals(0, stage.getQueued());
+
+        release.countDown();
+        waitUntil(() -> stage.getActive() == 0);
+        assertEquals("ok", stage.submit(() -> "ok").block());
+    }
+
+    @Test
+    void cancellingWaitersWhileReleaseDrainsNeverLeaksWorkers() throws InterruptedException {
+        PipelineStage stage = stage(2);
+
+        for (int round = 0; round < 200; round++) {
+            CountDownLatch release = new CountDownLatch(1);
+            List<Disposable> busy = List.of(
+                    stage.submit(() -> release.await(5, TimeUnit.SECONDS)).subscribe(),
+                    stage.submit(() -> release.await(5, TimeUnit.SECONDS)).subscribe());
+            waitUntil(() -> stage.getActive() == 2);
+
+            List<Disposable> waiting = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                waiting.add(stage.submit(() -> "queued").subscribe());
+            }
+
+            // bekor qilish release() ning drain'i bilan poyga qiladi
+            Thread canceller = new Thread(() -> waiting.forEach(Disposable::dispose));
+            canceller.start();
+            release.countDown();
+            canceller.join();
+
+            waitUntil(() -> stage.getActive() == 0 && stage.getQueued() == 0);
+            busy.forEach(Disposable::dispose);
+        }
+
+        assertEquals("ok", stage.submit(() -> "ok").block());
+        assertEquals(0, stage.getActive());
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timeout");
+            Thread.sleep(5);
+        }
+    }
+}
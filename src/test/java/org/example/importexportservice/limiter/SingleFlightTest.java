@@ -0,0 +1,61 @@
+package org.example.importexportservice.limiter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    @Test
+    void concurrentCallersShareOneUpstreamCall() {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>("test", 100, new SimpleMeterRegistry());
+        AtomicInteger upstream = new AtomicInteger();
+        Sinks.One<String> response = Sinks.one();
+
+        List<String> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            singleFlight.execute("123456789", () -> {
+                upstream.incrementAndGet();
+                return response.asMono();
+            }).subscribe(results::add);
+        }
+
+        assertEquals(1, singleFlight.inFlight());
+        response.tryEmitValue("ok");
+
+        assertEquals(List.of("ok", "ok", "ok"), results);
+        assertEquals(1, upstream.get());
+        assertEquals(2, singleFlight.getCoalesced());
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    void completedCallIsNotCached() {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>("test", 100, new SimpleMeterRegistry());
+        AtomicInteger upstream = new AtomicInteger();
+
+        singleFlight.execute("k", () -> Mono.fromCallable(upstream::incrementAndGet)).block();
+        Integer second = singleFlight.execute("k", () -> Mono.fromCallable(upstream::incrementAndGet)).block();
+
+        assertEquals(2, second);
+        assertEquals(0, singleFlight.getCoalesced());
+    }
+
+    @Test
+    void bypassesCoalescingWhenMapIsFull() {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>("test", 1, new SimpleMeterRegistry());
+
+        singleFlight.execute("a", Mono::never).subscribe();
+        singleFlight.execute("b", Mono::never).subscribe();
+
+        assertEquals(1, singleFlight.inFlight());
+        assertEquals(2, singleFlight.getCalls());
+    }
+}
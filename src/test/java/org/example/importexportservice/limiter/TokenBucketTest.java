@@ -0,0 +1,78 @@
+package org.example.importexportservice.limiter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private TokenBucket bucket(double perSecond, int burst) {
+        return new TokenBucket("test", perSecond, burst, new SimpleMeterRegistry(), clock::get);
+    }
+
+    @Test
+    void burstIsFreeThenRequestsAreSpacedByRate() {
+        TokenBucket bucket = bucket(10, 2);
+
+        assertEquals(0, bucket.reserve());
+        assertEquals(0, bucket.reserve());
+
+        // 10/s → har keyingi so'rov 100 ms keyin
+        assertEquals(100_000_000, bucket.reserve());
+        assertEquals(200_000_000, bucket.reserve());
+    }
+
+    @Test
+    void refillsOverTimeUpToCapacity() {
+        TokenBucket bucket = bucket(10, 2);
+        bucket.reserve();
+        bucket.reserve();
+
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        assertEquals(2, bucket.getAvailable(), 1e-9);
+    }
+
+    @Test
+    void pauseDelaysAllFollowingRequests() {
+        TokenBucket bucket = bucket(10, 5);
+
+        bucket.pause(Duration.ofSeconds(3));
+
+        long wait = bucket.reserve();
+        assertTrue(wait >= Duration.ofSeconds(3).toNanos(), "wait=" + wait);
+    }
+
+    @Test
+    void concurrentPausesWithSameRetryAfterShareOneWindow() {
+        TokenBucket bucket = bucket(10, 5);
+
+        bucket.pause(Duration.ofSeconds(5));
+        clock.addAndGet(Duration.ofMillis(10).toNanos());
+        bucket.pause(Duration.ofSeconds(5));
+
+        // ikkinchi 429 oynani 10 ms ga cho'zadi, 10 s ga emas; token balansi (5) saqlangan
+        assertEquals(Duration.ofSeconds(5).toNanos(), bucket.reserve());
+        assertEquals(4, bucket.getAvailable(), 1e-9);
+
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+        assertEquals(0, bucket.reserve());
+    }
+
+    @Test
+    void requestsAfterPauseAreStillSpacedByRate() {
+        TokenBucket bucket = bucket(10, 1);
+
+        bucket.pause(Duration.ofSeconds(1));
+
+        // pauza davomida token to'planmaydi: birinchisi pauza oxirida, keyingisi 100 ms dan keyin
+        assertEquals(Duration.ofSeconds(1).toNanos(), bucket.reserve());
+        assertEquals(Duration.ofMillis(1100).toNanos(), bucket.reserve());
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.importexportservice.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.importexportservice.entity.TradeData;
+import org.example.importexportservice.repository.EnrichmentQueueRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class EnrichmentQueueTest {
+
+    private final EnrichmentQueueRepository repository = mock(EnrichmentQueueRepository.class);
+    private final EnrichmentQueue queue = new EnrichmentQueue(repository, false, 100, registry());
+
+    @SuppressWarnings("unchecked")
+    private static ObjectProvider<MeterRegistry> registry() {
+        ObjectProvider<MeterRegistry> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable(any())).thenReturn(new SimpleMeterRegistry());
+        return provider;
+    }
+
+    private static TradeData row(String inn) {
+        TradeData row = new TradeData();
+        row.setCompanyInn(inn);
+        return row;
+    }
+
+    @Test
+    void innIsSkippedOnlyAfterCommitIsMarkedSeen() {
+        List<TradeData> rows = List.of(row("301234567"), row("302222222"));
+
+        // rollback bo'lgan batch: markSeen chaqirilmaydi → keyingi urinishda yana yoziladi
+        queue.record(rows);
+        queue.record(rows);
+        verify(repository, times(2)).enqueue(Set.of("301234567", "302222222"));
+
+        queue.markSeen(rows);
+        queue.record(List.of(row("301234567"), row("303333333")));
+        verify(repository).enqueue(Set.of("303333333"));
+    }
+}
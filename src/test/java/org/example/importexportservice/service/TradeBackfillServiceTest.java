@@ -0,0 +1,87 @@
+package org.example.importexportservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.importexportservice.repository.BackfillDayRepository;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class TradeBackfillServiceTest {
+
+    private static final LocalDate FROM = LocalDate.of(2025, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2025, 1, 3);
+
+    private final TradeDataService tradeDataService = mock(TradeDataService.class);
+    private final BackfillDayRepository repository = mock(BackfillDayRepository.class);
+    private final TradeImportPipeline pipeline = mock(TradeImportPipeline.class);
+    private final TradeBackfillService service = new TradeBackfillService(
+            tradeDataService, pipeline, repository, mock(TradeDataPartitionManager.class), new SimpleMeterRegistry(), 2, 8, 31);
+
+    @Test
+    void marksEachDayDoneOrFailed() {
+        when(repository.findOpen(FROM, TO)).thenReturn(List.of(FROM, FROM.plusDays(1)));
+        when(tradeDataService.syncDay(eq(FROM), anyInt(), any())).thenReturn(Mono.just(120L));
+        when(tradeDataService.syncDay(eq(FROM.plusDays(1)), anyInt(), any()))
+                .thenReturn(Mono.error(new IllegalStateException("page 3")));
+
+        service.backfill(FROM, TO, false).block();
+
+        verify(repository).ensureDays(FROM, TO);
+        verify(repository, never()).reopen(any(), any());
+        verify(repository).markDone(FROM, 120L);
+        verify(repository).markFailed(FROM.plusDays(1), "page 3");
+        // 2-kun xatosi oqimni to'xtatmaydi, jarayon yakunlanadi
+        assertFalse(service.isRunning());
+    }
+
+    @Test
+    void forceReopensDoneDays() {
+        when(repository.findOpen(FROM, TO)).thenReturn(List.of());
+
+        service.backfill(FROM, TO, true).block();
+
+        verify(repository).reopen(FROM, TO);
+        verifyNoInteractions(tradeDataService);
+    }
+
+    @Test
+    void runsDaysConcurrentlyUpToLimit() {
+        List<LocalDate> days = FROM.datesUntil(FROM.plusDays(6)).toList();
+        when(repository.findOpen(any(), any())).thenReturn(days);
+
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        when(tradeDataService.syncDay(any(), anyInt(), any())).thenAnswer(inv -> Mono.fromCallable(() -> {
+            peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            active.decrementAndGet();
+            return 1L;
+        }).subscribeOn(Schedulers.boundedElastic()));
+
+        service.backfill(FROM, FROM.plusDays(5), false).block();
+
+        verify(repository, times(6)).markDone(any(), eq(1L));
+        assertEquals(2, peak.get());
+    }
+
+    @Test
+    void rejectsConcurrentRunAndBadRange() {
+        when(repository.findOpen(FROM, TO)).thenReturn(List.of(FROM));
+        when(tradeDataService.syncDay(any(), anyInt(), any())).thenReturn(Mono.never());
+
+        service.backfill(FROM, TO, false).subscribe();
+
+        assertTrue(service.isRunning());
+        assertThrows(IllegalStateException.class, () -> service.backfill(FROM, TO, false).block());
+        assertThrows(IllegalArgumentException.class, () -> service.backfill(TO, FROM, false));
+        assertThrows(IllegalArgumentException.class, () -> service.backfill(FROM, FROM.plusDays(40), false));
+    }
+}
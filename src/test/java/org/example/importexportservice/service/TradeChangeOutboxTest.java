@@ -0,0 +1,84 @@
+package org.example.importexportservice.service;
+
+import org.example.importexportservice.dto.TradeChangeEvent;
+import org.example.importexportservice.dto.TradeValueChange;
+import org.example.importexportservice.enums.ChangeOp;
+import org.example.importexportservice.repository.TradeChangeOutboxRepository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TradeChangeOutboxTest {
+
+    private final TradeChangeOutboxRepository repository = mock(TradeChangeOutboxRepository.class);
+    private final TradeChangeOutbox outbox = new TradeChangeOutbox(repository, true, 2, Duration.ofDays(7));
+
+    private static TradeChangeEvent event(long seq) {
+        return event(100, seq);
+    }
+
+    private static TradeChangeEvent event(long txid, long seq) {
+        return new TradeChangeEvent(txid, seq, ChangeOp.INSERT, "IMPORT", "301234567", "84713000",
+                LocalDate.of(2025, 3, 17), null, BigDecimal.TEN, "aa01", null);
+    }
+
+    private static List<TradeChangeEvent> events(long fromSeq, long toSeq) {
+        return LongStream.rangeClosed(fromSeq, toSeq).mapToObj(TradeChangeOutboxTest::event).toList();
+    }
+
+    @Test
+    void streamReadsPagesFromLastSeqUntilShortPage() {
+        when(repository.findAfter(100, 10, 2)).thenReturn(events(11, 12));
+        when(repository.findAfter(100, 12, 2)).thenReturn(events(13, 14));
+        when(repository.findAfter(100, 14, 2)).thenReturn(events(15, 15));
+
+        List<Long> seqs = outbox.stream(100, 10).map(TradeChangeEvent::seq).collectList().block();
+
+        assertEquals(List.of(11L, 12L, 13L, 14L, 15L), seqs);
+        verify(repository, never()).findAfter(100, 15, 2);
+    }
+
+    @Test
+    void laterTransactionWithSmallerSeqIsNotSkipped() {
+        // B (xid 101) upsert'dan keyin seq 6 ni oldi va hali ochiq; A (xid 100) seq 7 bilan commit bo'ldi.
+        // xmin = 101 → faqat A ko'rinadi; seq kursori (7) B ning seq 6 sini abadiy o'tkazib yuborardi.
+        when(repository.findAfter(0, 0, 2)).thenReturn(List.of(event(100, 7)));
+        // B commit bo'lgach: (101, 6) > (100, 7)
+        when(repository.findAfter(100, 7, 2)).thenReturn(List.of(event(101, 6)));
+
+        TradeChangeEvent first = outbox.findAfter(0, 0, 2).block().get(0);
+        List<TradeChangeEvent> next = outbox.findAfter(first.txid(), first.seq(), 2).block();
+
+        assertEquals(List.of(6L), next.stream().map(TradeChangeEvent::seq).toList());
+    }
+
+    @Test
+    void streamCursorCarriesTxidAcrossPages() {
+        when(repository.findAfter(0, 0, 2)).thenReturn(List.of(event(100, 7), event(101, 6)));
+        when(repository.findAfter(101, 6, 2)).thenReturn(List.of(event(102, 8)));
+
+        List<Long> seqs = outbox.stream(0, 0).map(TradeChangeEvent::seq).collectList().block();
+
+        assertEquals(List.of(7L, 6L, 8L), seqs);
+    }
+
+    @Test
+    void recordSkipsEmptyAndDisabled() {
+        TradeValueChange change = new TradeValueChange("IMPORT", "301234567", "84713000", LocalDate.of(2025, 3, 17),
+                "CN", new BigDecimal("70"), "CN", new BigDecimal("90"), "aa02", false);
+
+        outbox.record(List.of());
+        new TradeChangeOutbox(repository, false, 2, Duration.ofDays(7)).record(List.of(change));
+        verifyNoInteractions(repository);
+
+        outbox.record(List.of(change));
+        verify(repository).append(List.of(change));
+    }
+}
@@ -0,0 +1,105 @@
+package org.example.importexportservice.service;
+
+import org.example.importexportservice.repository.TradeDataPartitionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TradeDataPartitionManagerTest {
+
+    private static final String ARCHIVE = "trade_archive";
+    private static final YearMonth NOW = YearMonth.now();
+
+    private final TradeDataPartitionRepository repository = mock(TradeDataPartitionRepository.class);
+
+    private static String name(YearMonth month) {
+        return "trade_data_" + month.format(DateTimeFormatter.ofPattern("yyyy_MM"));
+    }
+
+    private TradeDataPartitionManager manager(int monthsBehind, int retentionMonths) {
+        return new TradeDataPartitionManager(repository, true, monthsBehind, 1, retentionMonths, ARCHIVE);
+    }
+
+    @BeforeEach
+    void setUp() {
+        when(repository.isPartitioned()).thenReturn(true);
+        when(repository.findDefaultPartitionMonths()).thenReturn(List.of());
+        when(repository.findArchivedPartitionNames(ARCHIVE)).thenReturn(List.of());
+        when(repository.findPartitionNames()).thenReturn(List.of());
+    }
+
+    @Test
+    void rejectsRetentionWithinMonthsBehind() {
+        assertThrows(IllegalArgumentException.class, () -> manager(3, 3));
+        assertThrows(IllegalArgumentException.class, () -> manager(3, 2));
+        assertDoesNotThrow(() -> manager(3, 0));
+        assertDoesNotThrow(() -> manager(3, 4));
+    }
+
+    @Test
+    void ensuresWindowAndArchivesOnlyMonthsBeforeCutoff() {
+        when(repository.findPartitionNames()).thenReturn(List.of(
+                "trade_data_default",
+                name(NOW.minusMonths(7)),
+                name(NOW.minusMonths(6)),
+                name(NOW.minusMonths(5)),
+                name(NOW)));
+
+        manager(1, 6).maintain();
+
+        verify(repository).ensurePartition(NOW.minusMonths(1).atDay(1));
+        verify(repository).ensurePartition(NOW.atDay(1));
+        verify(repository).ensurePartition(NOW.plusMonths(1).atDay(1));
+        verify(repository, times(3)).ensurePartition(any());
+
+        // cutoff = NOW-6: undan oldingisi arxivlanadi, cutoff oyi va default qoladi
+        verify(repository).detachToArchive(name(NOW.minusMonths(7)), ARCHIVE);
+        verify(repository, times(1)).detachToArchive(any(), any());
+    }
+
+    @Test
+    void doesNotRecreateOrReArchiveArchivedMonths() {
+        YearMonth archived = NOW.minusMonths(9);
+        when(repository.findArchivedPartitionNames(ARCHIVE)).thenReturn(List.of(name(archived)));
+        when(repository.findDefaultPartitionMonths()).thenReturn(List.of(archived.atDay(1)));
+        // oldin qayta yaratilib qolgan nusxa
+        when(repository.findPartitionNames()).thenReturn(List.of(name(archived)));
+
+        manager(1, 6).maintain();
+
+        verify(repository, never()).ensurePartition(archived.atDay(1));
+        verify(repository, never()).detachToArchive(any(), any());
+    }
+
+    @Test
+    void refusesBackfillIntoArchivedMonth() {
+        YearMonth archived = NOW.minusMonths(9);
+        when(repository.findArchivedPartitionNames(ARCHIVE)).thenReturn(List.of(name(archived)));
+        TradeDataPartitionManager manager = manager(1, 6);
+
+        LocalDate from = archived.minusMonths(1).atDay(20);
+        LocalDate to = archived.atDay(5);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> manager.ensureRange(from, to));
+        assertTrue(e.getMessage().contains(archived.toString()));
+        verify(repository, never()).ensurePartition(any());
+
+        manager.ensureRange(archived.plusMonths(1).atDay(1), archived.plusMonths(2).atDay(3));
+        verify(repository, times(2)).ensurePartition(any());
+    }
+
+    @Test
+    void parsesMonthlyPartitionNamesOnly() {
+        assertEquals(YearMonth.of(2025, 3), TradeDataPartitionManager.monthOf("trade_data_2025_03"));
+        assertNull(TradeDataPartitionManager.monthOf("trade_data_default"));
+        assertNull(TradeDataPartitionManager.monthOf("trade_data_staging"));
+        assertNull(TradeDataPartitionManager.monthOf("organizations"));
+    }
+}
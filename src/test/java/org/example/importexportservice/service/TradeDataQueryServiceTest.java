@@ -0,0 +1,59 @@
+package org.example.importexportservice.service;
+
+import org.example.importexportservice.dto.KeysetPage;
+import org.example.importexportservice.dto.TradeDataQuery;
+import org.example.importexportservice.dto.TradeDataView;
+import org.example.importexportservice.repository.OrganizationRepository;
+import org.example.importexportservice.repository.TradeDataQueryRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TradeDataQueryServiceTest {
+
+    private final TradeDataQueryRepository repository = mock(TradeDataQueryRepository.class);
+    private final TradeDataQueryService service =
+            new TradeDataQueryService(repository, mock(OrganizationRepository.class));
+
+    private static final TradeDataQuery NO_FILTER = new TradeDataQuery(null, null, null, null, null, null, null);
+
+    private static TradeDataView row(long id, LocalDate date) {
+        return new TradeDataView(id, "IMPORT", "LEGAL", "123456789", "8471", BigDecimal.TEN, "CN", date);
+    }
+
+    @Test
+    void returnsCursorOfLastRowWhenMoreRowsExist() {
+        LocalDate date = LocalDate.of(2025, 5, 2);
+        when(repository.findPage(any(), eq(3))).thenReturn(List.of(row(1, date), row(2, date), row(3, date)));
+
+        KeysetPage<TradeDataView> page = service.findPage(NO_FILTER, null, 2).block();
+
+        assertEquals(2, page.items().size());
+        assertNotNull(page.nextCursor());
+
+        // kursor keyingi so'rovda (date, id) > (2025-05-02, 2) bo'lib qaytadi
+        when(repository.findPage(any(), anyInt())).thenReturn(List.of(row(3, date)));
+        KeysetPage<TradeDataView> next = service.findPage(NO_FILTER, page.nextCursor(), 2).block();
+
+        ArgumentCaptor<TradeDataQuery> captor = ArgumentCaptor.forClass(TradeDataQuery.class);
+        verify(repository, times(2)).findPage(captor.capture(), anyInt());
+        assertEquals(date, captor.getValue().afterDate());
+        assertEquals(2L, captor.getValue().afterId());
+        assertNull(next.nextCursor());
+    }
+
+    @Test
+    void rejectsMalformedCursor() {
+        assertThrows(ResponseStatusException.class, () -> service.findPage(NO_FILTER, "not-a-cursor", 10));
+    }
+}
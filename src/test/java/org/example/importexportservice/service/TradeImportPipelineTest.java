@@ -0,0 +1,81 @@
+package org.example.importexportservice.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.importexportservice.cache.TradeDataHashIndex;
+import org.example.importexportservice.dto.BatchWriteResult;
+import org.example.importexportservice.dto.TradeStatisticDTO;
+import org.example.importexportservice.entity.TradeData;
+import org.example.importexportservice.enums.WriteMode;
+import org.example.importexportservice.limiter.PipelineStage;
+import org.example.importexportservice.mapper.TradeStatisticsMapperImpl;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TradeImportPipelineTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final TradeDataBatchWriter writer = mock(TradeDataBatchWriter.class);
+
+    private TradeImportPipeline pipeline() {
+        when(writer.mode()).thenReturn(WriteMode.BULK);
+        when(writer.write(any())).thenAnswer(inv ->
+                new BatchWriteResult(inv.<Collection<TradeData>>getArgument(0).size(), 0, 0));
+        return new TradeImportPipeline(
+                new TradeBatchPreparer(new TradeStatisticsMapperImpl(), registry),
+                mock(TradeDataHashIndex.class),
+                mock(EnrichmentQueue.class),
+                List.of(writer),
+                mock(TradeDataCopyLoader.class),
+                registry,
+                stage("map"), stage("dedup"), stage("persist"),
+                mock(PlatformTransactionManager.class),
+                WriteMode.BULK,
+                1000);
+    }
+
+    private PipelineStage stage(String name) {
+        return new PipelineStage(name, 2, 2, Schedulers.boundedElastic(), registry);
+    }
+
+    private static TradeStatisticDTO row(String inn, String date) {
+        return TradeStatisticDTO.builder()
+                .operationType("ИМ")
+                .hsCode("8471300000")
+                .companyInn(inn)
+                .goodsValue(new BigDecimal("100"))
+                .countryCode("CN")
+                .declarationDate(date)
+                .build();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void undatedRowIsDroppedAndRestOfBatchIsWritten() {
+        TradeImportPipeline pipeline = pipeline();
+
+        pipeline.persist(pipeline.openWindow(), Flux.just(
+                row("301234567", "17.03.25"),
+                row("302222222", null),
+                row("303333333", "xx.03.25"),
+                row("304444444", "18.03.25"))).block();
+
+        ArgumentCaptor<Collection<TradeData>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(writer).write(captor.capture());
+
+        assertEquals(List.of("301234567", "304444444"),
+                captor.getValue().stream().map(TradeData::getCompanyInn).toList());
+        assertEquals(2, registry.counter("trade.rows", "result", "no_date").count());
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.importexportservice.service;
+
+import org.example.importexportservice.dto.TradeValueChange;
+import org.example.importexportservice.repository.TradeRollupRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TradeRollupServiceTest {
+
+    private final TradeRollupRepository repository = mock(TradeRollupRepository.class);
+    private final TradeRollupService service = new TradeRollupService(
+            repository, mock(PlatformTransactionManager.class), true, false, 4);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void aggregatesInsertsAndAppliesUpdateDifference() {
+        LocalDate date = LocalDate.of(2025, 3, 17);
+
+        service.apply(List.of(
+                new TradeValueChange("IMPORT", "301234567", "84713000", date, null, null, "CN", new BigDecimal("100"), null, true),
+                new TradeValueChange("IMPORT", "301234567", "84719000", date.plusDays(3), null, null, "CN", new BigDecimal("50"), null, true),
+                // update: qiymat 70 → 90, davlat o'zgarmagan
+                new TradeValueChange("IMPORT", "301234567", "84715000", date, "CN", new BigDecimal("70"), "CN", new BigDecimal("90"), null, false),
+                // update: davlat CN → TR
+                new TradeValueChange("IMPORT", "301234567", "84711000", date, "CN", new BigDecimal("10"), "TR", new BigDecimal("10"), null, false)
+        ));
+
+        ArgumentCaptor<List<TradeRollupRepository.Delta>> captor = ArgumentCaptor.forClass(List.class);
+        verify(repository).apply(captor.capture());
+
+        Map<String, TradeRollupRepository.Delta> byCountry = captor.getValue().stream()
+                .collect(Collectors.toMap(TradeRollupRepository.Delta::countryCode, d -> d));
+
+        TradeRollupRepository.Delta cn = byCountry.get("CN");
+        assertEquals("8471", cn.hsPrefix());
+        assertEquals(LocalDate.of(2025, 3, 1), cn.month());
+        assertEquals(0, new BigDecimal("160").compareTo(cn.value()));
+        assertEquals(1, cn.count());
+
+        TradeRollupRepository.Delta tr = byCountry.get("TR");
+        assertEquals(0, new BigDecimal("10").compareTo(tr.value()));
+        assertEquals(1, tr.count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void appliesDeltasInStableLockOrder() {
+        LocalDate march = LocalDate.of(2025, 3, 17);
+        LocalDate february = LocalDate.of(2025, 2, 3);
+
+        service.apply(List.of(
+                new TradeValueChange("IMPORT", "301234567", "8471300000", march, null, null, "TR", BigDecimal.ONE, null, true),
+                new TradeValueChange("EXPORT", "301234567", "0101000000", march, null, null, "KZ", BigDecimal.ONE, null, true),
+                new TradeValueChange("IMPORT", "301234567", "0201000000", march, null, null, "CN", BigDecimal.ONE, null, true),
+                new TradeValueChange("IMPORT", "301234567", "8471300000", march, null, null, "CN", BigDecimal.ONE, null, true),
+                new TradeValueChange("IMPORT", "301234567", "9999000000", february, null, null, "CN", BigDecimal.ONE, null, true)
+        ));
+
+        ArgumentCaptor<List<TradeRollupRepository.Delta>> captor = ArgumentCaptor.forClass(List.class);
+        verify(repository).apply(captor.capture());
+
+        assertEquals(List.of("2025-02-01 IMPORT 9999 CN", "2025-03-01 EXPORT 0101 KZ", "2025-03-01 IMPORT 0201 CN",
+                        "2025-03-01 IMPORT 8471 CN", "2025-03-01 IMPORT 8471 TR"),
+                captor.getValue().stream()
+                        .map(d -> d.month() + " " + d.operationType() + " " + d.hsPrefix() + " " + d.countryCode())
+                        .toList());
+    }
+
+    @Test
+    void skipsWhenDisabled() {
+        TradeRollupService disabled = new TradeRollupService(
+                repository, mock(PlatformTransactionManager.class), false, false, 4);
+
+        disabled.apply(List.of(new TradeValueChange("EXPORT", "301234567", "0101", LocalDate.now(),
+                null, null, "KZ", BigDecimal.ONE, null, true)));
+
+        verifyNoInteractions(repository);
+    }
+}
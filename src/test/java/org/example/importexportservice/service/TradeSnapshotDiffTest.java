@@ -0,0 +1,87 @@
+package org.example.importexportservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.importexportservice.dto.SliceKey;
+import org.example.importexportservice.dto.TradeStatisticDTO;
+import org.example.importexportservice.entity.TradeData;
+import org.example.importexportservice.enums.UpdateMode;
+import org.example.importexportservice.hash.SliceDigest;
+import org.example.importexportservice.mapper.TradeStatisticsMapperImpl;
+import org.example.importexportservice.repository.TradeSliceDigestRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TradeSnapshotDiffTest {
+
+    private static final LocalDate DATE = LocalDate.of(2025, 3, 17);
+
+    private final TradeSliceDigestRepository repository = mock(TradeSliceDigestRepository.class);
+    private final TradeSliceDigests digests = new TradeSliceDigests(
+            repository, mock(PlatformTransactionManager.class), UpdateMode.SNAPSHOT_DIFF, 2);
+    private final TradeBatchPreparer preparer =
+            new TradeBatchPreparer(new TradeStatisticsMapperImpl(), new SimpleMeterRegistry());
+    private final TradeSnapshotDiff diff = new TradeSnapshotDiff(digests, preparer, new TradeStatisticsMapperImpl(),
+            mock(TradeImportPipeline.class), new SimpleMeterRegistry());
+
+    private static TradeStatisticDTO row(String op, String hsCode, String inn, String value) {
+        return TradeStatisticDTO.builder()
+                .operationType(op)
+                .hsCode(hsCode)
+                .companyInn(inn)
+                .goodsValue(new BigDecimal(value))
+                .countryCode("CN")
+                .declarationDate("17.03.25")
+                .build();
+    }
+
+    /**
+     * DB holati: qatorlar qanday yozilgan bo'lsa, shunday digest
+     */
+    private TradeSliceDigestRepository.Slice stored(String op, String chapter, TradeStatisticDTO... rows) {
+        SliceDigest digest = SliceDigest.EMPTY;
+        for (TradeData row : preparer.prepare(new ArrayList<>(List.of(rows)))) {
+            digest = digest.add(row.getUniqueHash());
+        }
+        return new TradeSliceDigestRepository.Slice(new SliceKey(DATE, op, chapter), digest);
+    }
+
+    @Test
+    void skipsMatchingSliceAndWritesOnlyChangedChapter() {
+        TradeStatisticDTO export = row("ЭК", "0101000000", "301234567", "10");
+        TradeStatisticDTO machines = row("ИМ", "8471300000", "301234567", "100");
+        TradeStatisticDTO foodOld = row("ИМ", "0201000000", "302222222", "5");
+        TradeStatisticDTO foodNew = row("ИМ", "0201000000", "302222222", "7");
+
+        when(repository.find(DATE)).thenReturn(List.of(
+                stored("EXPORT", "01", export),
+                stored("IMPORT", "84", machines),
+                stored("IMPORT", "02", foodOld)));
+
+        TradeSnapshotDiff.Plan plan = diff.plan(List.of(export, machines, foodNew));
+
+        assertEquals(List.of(foodNew), plan.rows());
+        assertEquals(1, plan.skippedSlices());
+        assertEquals(1, plan.reconciledChapters());
+        assertEquals(2, plan.skippedChapters());
+        verify(repository, never()).refresh(any(), anyInt());
+    }
+
+    @Test
+    void unkeyedRowsAlwaysGoThrough() {
+        TradeStatisticDTO undated = row("ИМ", "8471300000", "301234567", "1");
+        undated.setDeclarationDate(null);
+
+        TradeSnapshotDiff.Plan plan = diff.plan(List.of(undated));
+
+        assertEquals(List.of(undated), plan.rows());
+        verifyNoInteractions(repository);
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.importexportservice.token;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.importexportservice.dto.repsonse.TokenResponseDto;
+import org.example.importexportservice.service.TokenService;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TokenHolderTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final AtomicInteger issued = new AtomicInteger();
+    private final TokenService tokenService = mock(TokenService.class);
+    private final TokenHolder holder = new TokenHolder(tokenService, new SimpleMeterRegistry(),
+            Duration.ofSeconds(60), Duration.ofMinutes(10), now::get);
+
+    private Mono<TokenResponseDto> nextToken(long expiresIn) {
+        return Mono.fromSupplier(() -> new TokenResponseDto("token-" + issued.incrementAndGet(), expiresIn));
+    }
+
+    @Test
+    void cachesUntilRefreshWindow() {
+        when(tokenService.fetchToken()).thenAnswer(inv -> nextToken(600));
+
+        assertEquals("token-1", holder.getToken().block());
+        now.addAndGet(500_000);
+        assertEquals("token-1", holder.getToken().block());
+        verify(tokenService, times(1)).fetchToken();
+
+        // muddatga 50 s qoldi: eski token qaytadi, yangisi fonda olinadi
+        now.addAndGet(50_000);
+        assertEquals("token-1", holder.getToken().block());
+        assertEquals("token-2", holder.getToken().block());
+    }
+
+    @Test
+    void expiredTokenWaitsForNewOne() {
+        when(tokenService.fetchToken()).thenAnswer(inv -> nextToken(120));
+
+        assertEquals("token-1", holder.getToken().block());
+        now.addAndGet(121_000);
+        assertEquals("token-2", holder.getToken().block());
+    }
+
+    @Test
+    void concurrentMissesShareOneRequest() {
+        Sinks.One<TokenResponseDto> response = Sinks.one();
+        when(tokenService.fetchToken()).thenReturn(response.asMono());
+
+        Mono<String> first = holder.getToken().cache();
+        Mono<String> second = holder.getToken().cache();
+        first.subscribe();
+        second.subscribe();
+        response.tryEmitValue(new TokenResponseDto("shared", 600L));
+
+        assertEquals("shared", first.block());
+        assertEquals("shared", second.block());
+        verify(tokenService, times(1)).fetchToken();
+    }
+
+    @Test
+    void forceRefreshSkipsWhenTokenAlreadyRotated() {
+        when(tokenService.fetchToken()).thenAnswer(inv -> nextToken(600));
+
+        String rejected = holder.getToken().block();
+        assertEquals("token-2", holder.forceRefresh(rejected).block());
+        // eski token bilan kechikib kelgan 401 – yangi so'rov ketmaydi
+        assertEquals("token-2", holder.forceRefresh(rejected).block());
+        verify(tokenService, times(2)).fetchToken();
+    }
+
+    @Test
+    void missingExpiresInUsesDefault() {
+        when(tokenService.fetchToken()).thenAnswer(inv -> Mono.just(new TokenResponseDto("t", null)));
+
+        holder.getToken().block();
+        now.addAndGet(Duration.ofMinutes(9).toMillis() - 1);
+        holder.getToken().block();
+        verify(tokenService, times(1)).fetchToken();
+    }
+}